@@ -0,0 +1,130 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.io.RandomAccessFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class CallHistoryStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dir = new File(context.getCacheDir(), "call-history-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static CallHistoryStore.Record call(String callSid, long startedAt) {
+        CallHistoryStore.Record record = new CallHistoryStore.Record(
+            callSid,
+            CallHistoryStore.DIRECTION_OUTGOING,
+            "client:alice",
+            startedAt
+        );
+        record.connectedAt = startedAt + 2000;
+        record.endedAt = startedAt + 60000;
+        return record;
+    }
+
+    private static CallHistoryStore.Page all(CallHistoryStore store) throws Exception {
+        return store.query(0, Long.MAX_VALUE, 0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void queriesNewestFirstWithPaging() throws Exception {
+        CallHistoryStore store = new CallHistoryStore(dir);
+        store.record(call("CA1", 1000));
+        store.record(call("CA3", 3000));
+        // Ended last but started second, the index stays sorted by start time
+        store.record(call("CA2", 2000));
+
+        CallHistoryStore.Page page = all(store);
+        assertEquals(3, page.total);
+        assertEquals("CA3", page.records.get(0).callSid);
+        assertEquals("CA2", page.records.get(1).callSid);
+        assertEquals("CA1", page.records.get(2).callSid);
+        assertEquals(58000, page.records.get(0).endedAt - page.records.get(0).connectedAt);
+
+        page = store.query(1500, 3000, 1, 1);
+        assertEquals(2, page.total);
+        assertEquals(1, page.records.size());
+        assertEquals("CA2", page.records.get(0).callSid);
+    }
+
+    @Test
+    public void rebuildsIndexFromTruncatedDataFile() throws Exception {
+        CallHistoryStore store = new CallHistoryStore(dir);
+        store.record(call("CA1", 1000));
+        store.record(call("CA2", 2000));
+        assertEquals(2, all(store).total);
+        long twoRecords = new File(dir, "capacitor_twilio_voice_call_history.bin").length();
+        store.record(call("CA3", 3000));
+        assertEquals(3, all(store).total);
+
+        // The process died in the middle of writing the last record
+        File dataFile = new File(dir, "capacitor_twilio_voice_call_history.bin");
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        CallHistoryStore reopened = new CallHistoryStore(dir);
+        CallHistoryStore.Page page = all(reopened);
+        assertEquals(2, page.total);
+        assertEquals("CA2", page.records.get(0).callSid);
+        assertEquals("CA1", page.records.get(1).callSid);
+        assertEquals(twoRecords, dataFile.length());
+
+        reopened.record(call("CA4", 4000));
+        page = all(reopened);
+        assertEquals(3, page.total);
+        assertEquals("CA4", page.records.get(0).callSid);
+    }
+
+    @Test
+    public void rebuildsMissingIndex() throws Exception {
+        CallHistoryStore store = new CallHistoryStore(dir);
+        store.record(call("CA1", 1000));
+        store.record(call("CA2", 2000));
+        assertEquals(2, all(store).total);
+
+        assertTrue(new File(dir, "capacitor_twilio_voice_call_history.idx").delete());
+
+        CallHistoryStore.Page page = all(new CallHistoryStore(dir));
+        assertEquals(2, page.total);
+        assertEquals("CA2", page.records.get(0).callSid);
+    }
+
+    @Test
+    public void compactsOnceTwiceTheLimitIsRecorded() throws Exception {
+        CallHistoryStore store = new CallHistoryStore(dir);
+        for (int i = 0; i <= CallHistoryStore.MAX_RECORDS * 2; i++) {
+            store.record(call("CA" + i, i));
+        }
+
+        CallHistoryStore.Page page = store.query(0, Long.MAX_VALUE, 0, 1);
+        assertEquals(CallHistoryStore.MAX_RECORDS, page.total);
+        assertEquals("CA" + CallHistoryStore.MAX_RECORDS * 2, page.records.get(0).callSid);
+        assertEquals(CallHistoryStore.MAX_RECORDS, all(new CallHistoryStore(dir)).total);
+    }
+}
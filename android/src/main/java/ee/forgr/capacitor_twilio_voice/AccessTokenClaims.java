@@ -0,0 +1,86 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.util.Base64;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONObject;
+
+/**
+ * Claims of a Twilio access token, decoded once when the token is set.
+ * Status checks read the fields directly instead of decoding the JWT again.
+ */
+public final class AccessTokenClaims {
+
+    private static final String TAG = "CapacitorTwilioVoice";
+
+    private final String token;
+    private final long expiresAtSeconds;
+    private final String identity;
+    private final JSONObject grants;
+
+    private AccessTokenClaims(String token, long expiresAtSeconds, String identity, JSONObject grants) {
+        this.token = token;
+        this.expiresAtSeconds = expiresAtSeconds;
+        this.identity = identity;
+        this.grants = grants;
+    }
+
+    /**
+     * Decodes the payload of the token, or returns null if it is not a JWT with an {@code exp} claim.
+     */
+    @Nullable
+    public static AccessTokenClaims parse(@Nullable String token) {
+        if (token == null) {
+            return null;
+        }
+
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        try {
+            // JWT segments are base64url encoded without padding
+            byte[] payload = Base64.decode(token.substring(firstDot + 1, secondDot), Base64.URL_SAFE | Base64.NO_WRAP);
+            JSONObject json = new JSONObject(new String(payload, StandardCharsets.UTF_8));
+
+            JSONObject grants = json.optJSONObject("grants");
+            String identity = grants != null ? grants.optString("identity", null) : null;
+            return new AccessTokenClaims(token, json.getLong("exp"), identity, grants);
+        } catch (Exception e) {
+            Log.e(TAG, "Error decoding access token", e);
+            return null;
+        }
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Expiry of the token in seconds since the epoch.
+     */
+    public long getExpiresAt() {
+        return expiresAtSeconds;
+    }
+
+    @Nullable
+    public String getIdentity() {
+        return identity;
+    }
+
+    @Nullable
+    public JSONObject getGrants() {
+        return grants;
+    }
+
+    public long millisUntilExpiry() {
+        return expiresAtSeconds * 1000 - System.currentTimeMillis();
+    }
+
+    public boolean isValid() {
+        return millisUntilExpiry() > 0;
+    }
+}
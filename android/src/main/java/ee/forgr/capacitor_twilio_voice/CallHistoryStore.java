@@ -0,0 +1,454 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.getcapacitor.JSObject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-device call log. Each finished call is appended as a compact binary record to a data file, and its start
+ * time and offset to an index file, so queries only read the records of the requested page.
+ * The index is kept in memory sorted by start time; it is rebuilt from the data file if the two disagree, e.g.
+ * after the process died between the two writes. All file access runs on one worker thread, so a query sees
+ * every call recorded before it.
+ */
+public final class CallHistoryStore {
+
+    private static final String TAG = "CallHistoryStore";
+
+    private static final String DATA_FILE = "capacitor_twilio_voice_call_history.bin";
+    private static final String INDEX_FILE = "capacitor_twilio_voice_call_history.idx";
+    private static final int FORMAT_VERSION = 1;
+    private static final int INDEX_ENTRY_BYTES = 16;
+    private static final long QUERY_TIMEOUT_MS = 5000;
+
+    // Older calls are compacted away once the log holds twice as many
+    static final int MAX_RECORDS = 1000;
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int DIRECTION_INCOMING = 0;
+    public static final int DIRECTION_OUTGOING = 1;
+
+    public static final int STATUS_COMPLETED = 0;
+    public static final int STATUS_FAILED = 1;
+    public static final int STATUS_REJECTED = 2;
+    public static final int STATUS_MISSED = 3;
+
+    /**
+     * One call. Timestamps are wall clock milliseconds, 0 when the call never reached that stage.
+     */
+    public static final class Record {
+
+        @Nullable
+        public String callSid;
+
+        public final int direction;
+
+        @Nullable
+        public final String peer;
+
+        public final long startedAt;
+        public long connectedAt;
+        public long endedAt;
+        public int status = STATUS_COMPLETED;
+        // Twilio error code of the disconnect, 0 if none
+        public int errorCode;
+
+        @Nullable
+        public CallQualityMonitor.Summary quality;
+
+        public Record(@Nullable String callSid, int direction, @Nullable String peer, long startedAt) {
+            this.callSid = callSid;
+            this.direction = direction;
+            this.peer = peer;
+            this.startedAt = startedAt;
+        }
+
+        public JSObject toJSObject() {
+            JSObject data = new JSObject();
+            data.put("callSid", callSid);
+            data.put("direction", direction == DIRECTION_OUTGOING ? "outgoing" : "incoming");
+            data.put("peer", peer);
+            data.put("status", statusName(status));
+            data.put("startedAt", startedAt);
+            if (connectedAt > 0) {
+                data.put("connectedAt", connectedAt);
+            }
+            if (endedAt > 0) {
+                data.put("endedAt", endedAt);
+            }
+            if (connectedAt > 0 && endedAt >= connectedAt) {
+                data.put("durationMs", endedAt - connectedAt);
+            }
+            if (errorCode != 0) {
+                data.put("errorCode", errorCode);
+            }
+            if (quality != null) {
+                data.put("qualitySummary", quality.toJSObject());
+            }
+            return data;
+        }
+
+        private static String statusName(int status) {
+            switch (status) {
+                case STATUS_FAILED:
+                    return "failed";
+                case STATUS_REJECTED:
+                    return "rejected";
+                case STATUS_MISSED:
+                    return "missed";
+                default:
+                    return "completed";
+            }
+        }
+    }
+
+    public static final class Page {
+
+        public final List<Record> records;
+        // Number of calls in the requested time range
+        public final int total;
+
+        Page(List<Record> records, int total) {
+            this.records = records;
+            this.total = total;
+        }
+    }
+
+    private static CallHistoryStore instance;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "CallHistoryStore");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Worker thread only, sorted by start time
+    private boolean opened = false;
+    private long[] startTimes = new long[64];
+    private long[] offsets = new long[64];
+    private int count = 0;
+
+    // Separate instances on the same directory are only for tests, the app goes through get()
+    CallHistoryStore(File dir) {
+        dataFile = new File(dir, DATA_FILE);
+        indexFile = new File(dir, INDEX_FILE);
+    }
+
+    public static synchronized CallHistoryStore get(Context context) {
+        if (instance == null) {
+            instance = new CallHistoryStore(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    /**
+     * Appends the call in the background.
+     */
+    public void record(Record record) {
+        worker.execute(() -> {
+            try {
+                open();
+                append(record);
+                if (count > MAX_RECORDS * 2) {
+                    compact();
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error recording call " + record.callSid, e);
+            }
+        });
+    }
+
+    /**
+     * Calls started between from and to (inclusive), newest first, skipping the first offset ones.
+     */
+    public Page query(long from, long to, int offset, int limit) throws Exception {
+        return worker
+            .submit(() -> {
+                open();
+                int lo = lowerBound(from);
+                int hi = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+                int total = Math.max(0, hi - lo);
+
+                List<Record> records = new ArrayList<>();
+                if (hi - 1 - offset < lo) {
+                    return new Page(records, total);
+                }
+                try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+                    for (int i = hi - 1 - offset; i >= lo && records.size() < limit; i--) {
+                        Record record = readRecord(file, offsets[i]);
+                        if (record != null) {
+                            records.add(record);
+                        }
+                    }
+                }
+                return new Page(records, total);
+            })
+            .get(QUERY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        opened = true;
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        try {
+            if (!loadIndex()) {
+                Log.w(TAG, "Call history index out of date, rebuilding it");
+                rebuildIndex();
+            }
+            if (count > MAX_RECORDS * 2) {
+                compact();
+            }
+        } catch (IOException e) {
+            // New calls are still recorded, the index is rebuilt on the next start
+            count = 0;
+            throw e;
+        }
+    }
+
+    // Returns false if the index does not cover exactly the records of the data file
+    private boolean loadIndex() throws IOException {
+        if (!indexFile.exists() || indexFile.length() % INDEX_ENTRY_BYTES != 0) {
+            return false;
+        }
+
+        long dataLength = dataFile.length();
+        long expectedEnd = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            int entries = (int) (indexFile.length() / INDEX_ENTRY_BYTES);
+            for (int i = 0; i < entries; i++) {
+                long startedAt = in.readLong();
+                long offset = in.readLong();
+                if (offset >= dataLength) {
+                    return false;
+                }
+                insert(startedAt, offset);
+                expectedEnd = Math.max(expectedEnd, offset);
+            }
+        }
+
+        if (count == 0) {
+            return dataLength == 0;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+            file.seek(expectedEnd);
+            return expectedEnd + 4 + file.readInt() == dataLength;
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        count = 0;
+        long validLength = 0;
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+            long length = file.length();
+            while (validLength + 4 + 1 + 8 <= length) {
+                file.seek(validLength);
+                int size = file.readInt();
+                if (size <= 0 || validLength + 4 + size > length) {
+                    break;
+                }
+                file.readByte();
+                insert(file.readLong(), validLength);
+                validLength += 4 + size;
+            }
+            // Drop a record cut short by the process dying
+            file.setLength(validLength);
+        }
+        writeIndex(indexFile);
+    }
+
+    private void compact() throws IOException {
+        File newData = new File(dataFile.getPath() + ".tmp");
+        File newIndex = new File(indexFile.getPath() + ".tmp");
+        long[] newStartTimes = new long[MAX_RECORDS];
+        long[] newOffsets = new long[MAX_RECORDS];
+
+        try (
+            RandomAccessFile in = new RandomAccessFile(dataFile, "r");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newData)))
+        ) {
+            long position = 0;
+            for (int i = 0; i < MAX_RECORDS; i++) {
+                int source = count - MAX_RECORDS + i;
+                in.seek(offsets[source]);
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                out.writeInt(payload.length);
+                out.write(payload);
+                newStartTimes[i] = startTimes[source];
+                newOffsets[i] = position;
+                position += 4 + payload.length;
+            }
+        }
+
+        writeIndex(newIndex, newStartTimes, newOffsets, MAX_RECORDS);
+        if (!newData.renameTo(dataFile) || !newIndex.renameTo(indexFile)) {
+            // The files on disk may now be the old ones, the new ones or a mix, so reload them on the next access
+            opened = false;
+            count = 0;
+            newData.delete();
+            newIndex.delete();
+            throw new IOException("Could not replace call history files");
+        }
+
+        // Only switch to the compacted index once the files it points into are in place
+        startTimes = newStartTimes;
+        offsets = newOffsets;
+        count = MAX_RECORDS;
+        Log.d(TAG, "Compacted call history to " + MAX_RECORDS + " calls");
+    }
+
+    private void writeIndex(File file) throws IOException {
+        writeIndex(file, startTimes, offsets, count);
+    }
+
+    private static void writeIndex(File file, long[] startTimes, long[] offsets, int count) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(startTimes[i]);
+                out.writeLong(offsets[i]);
+            }
+        }
+    }
+
+    private void append(Record record) throws IOException {
+        byte[] payload = encode(record);
+        long offset = dataFile.length();
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(dataFile, true))) {
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(indexFile, true))) {
+            out.writeLong(record.startedAt);
+            out.writeLong(offset);
+        }
+        insert(record.startedAt, offset);
+    }
+
+    // Calls end roughly in the order they started, so this almost always appends
+    private void insert(long startedAt, long offset) {
+        if (count == startTimes.length) {
+            startTimes = Arrays.copyOf(startTimes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        int i = count;
+        while (i > 0 && startTimes[i - 1] > startedAt) {
+            startTimes[i] = startTimes[i - 1];
+            offsets[i] = offsets[i - 1];
+            i--;
+        }
+        startTimes[i] = startedAt;
+        offsets[i] = offset;
+        count++;
+    }
+
+    // First index whose start time is at least the given time
+    private int lowerBound(long time) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startTimes[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static byte[] encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        // The start time comes first, the index is rebuilt from it
+        out.writeLong(record.startedAt);
+        out.writeLong(record.connectedAt);
+        out.writeLong(record.endedAt);
+        out.writeByte(record.direction);
+        out.writeByte(record.status);
+        out.writeInt(record.errorCode);
+        out.writeUTF(record.callSid != null ? record.callSid : "");
+        out.writeUTF(record.peer != null ? record.peer : "");
+
+        CallQualityMonitor.Summary quality = record.quality;
+        out.writeBoolean(quality != null);
+        if (quality != null) {
+            out.writeInt(quality.samples);
+            out.writeFloat((float) quality.averageJitterMs);
+            out.writeInt(quality.maxJitterMs);
+            out.writeFloat((float) quality.averageRttMs);
+            out.writeInt(quality.maxRttMs);
+            out.writeFloat((float) quality.packetLossPercent);
+            out.writeFloat((float) quality.averageMos);
+            out.writeFloat((float) quality.minMos);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nullable
+    private static Record readRecord(RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        byte[] payload = new byte[file.readInt()];
+        file.readFully(payload);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            Log.w(TAG, "Skipping call record with unknown format " + version);
+            return null;
+        }
+        long startedAt = in.readLong();
+        long connectedAt = in.readLong();
+        long endedAt = in.readLong();
+        int direction = in.readByte();
+        int status = in.readByte();
+        int errorCode = in.readInt();
+        String callSid = in.readUTF();
+        String peer = in.readUTF();
+
+        Record record = new Record(callSid.isEmpty() ? null : callSid, direction, peer.isEmpty() ? null : peer, startedAt);
+        record.connectedAt = connectedAt;
+        record.endedAt = endedAt;
+        record.status = status;
+        record.errorCode = errorCode;
+        if (in.readBoolean()) {
+            record.quality = new CallQualityMonitor.Summary(
+                in.readInt(),
+                in.readFloat(),
+                in.readInt(),
+                in.readFloat(),
+                in.readInt(),
+                in.readFloat(),
+                in.readFloat(),
+                in.readFloat()
+            );
+        }
+        return record;
+    }
+}
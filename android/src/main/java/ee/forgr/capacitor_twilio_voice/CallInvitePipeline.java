@@ -0,0 +1,70 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.util.Log;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single worker that processes call invites and cancellations handed off by the FCM service.
+ * The FCM thread waits for the handoff, up to {@link #HANDOFF_TIMEOUT_MS}: on a cold start the process may be demoted
+ * as soon as onMessageReceived returns, so it must not return before the invite is shown, but a slow invite must not
+ * hold it past FCM's processing window either. One worker keeps an invite and its cancellation in order; when the
+ * bounded queue is full the FCM thread processes the event itself rather than dropping it.
+ */
+public final class CallInvitePipeline {
+
+    private static final String TAG = "CallInvitePipeline";
+
+    static final int QUEUE_CAPACITY = 32;
+    static final long HANDOFF_TIMEOUT_MS = 5000;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+    private static final ThreadPoolExecutor worker = createWorker();
+
+    private CallInvitePipeline() {}
+
+    /**
+     * Runs the task on the worker and waits until it is done or {@link #HANDOFF_TIMEOUT_MS} has passed.
+     */
+    public static void submit(Runnable task) {
+        CountDownLatch done = new CountDownLatch(1);
+        worker.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        try {
+            if (!done.await(HANDOFF_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Invite still being processed after " + HANDOFF_TIMEOUT_MS + "ms, returning to FCM");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadPoolExecutor createWorker() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1,
+            1,
+            WORKER_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            (runnable) -> {
+                Thread thread = new Thread(runnable, "CallInvitePipeline");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, rejectedBy) -> {
+                Log.w(TAG, "Invite queue full, processing on the calling thread");
+                runnable.run();
+            }
+        );
+        // No idle thread between calls
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,206 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.twilio.voice.CallInvite;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pending call invites, keyed by the id handed to JavaScript and indexed by the Twilio CallSid.
+ * Safe to use from the FCM service thread, the main thread and the notification receiver.
+ * Invites older than their time to live are evicted on access or by {@link #evictExpired()}, so the registry stays
+ * bounded; the {@link ExpiryListener} is told about each one so its notification can be dismissed.
+ */
+public class CallInviteRegistry {
+
+    private static final String TAG = "CallInviteRegistry";
+
+    // Twilio cancels an unanswered invite well before this
+    static final long DEFAULT_INVITE_TTL_MS = 2 * 60 * 1000;
+
+    public interface ExpiryListener {
+        /**
+         * @param receivedAt wall clock time the invite was registered
+         */
+        void onInviteExpired(String id, CallInvite invite, long receivedAt);
+    }
+
+    private static final class Entry {
+
+        final CallInvite invite;
+        final long expiresAt;
+        // Wall clock time the invite was registered
+        final long receivedAt = System.currentTimeMillis();
+
+        Entry(CallInvite invite, long expiresAt) {
+            this.invite = invite;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long inviteTtlMs;
+    private final ConcurrentHashMap<String, Entry> invitesById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> idsByCallSid = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile ExpiryListener expiryListener;
+
+    public CallInviteRegistry() {
+        this(DEFAULT_INVITE_TTL_MS);
+    }
+
+    public CallInviteRegistry(long inviteTtlMs) {
+        this.inviteTtlMs = inviteTtlMs;
+    }
+
+    public void setExpiryListener(@Nullable ExpiryListener listener) {
+        expiryListener = listener;
+    }
+
+    public long getInviteTtlMs() {
+        return inviteTtlMs;
+    }
+
+    /**
+     * Registers the invite and returns the id used to refer to it from JavaScript.
+     */
+    public String add(CallInvite invite) {
+        evictExpired();
+
+        String id = UUID.randomUUID().toString();
+        invitesById.put(id, new Entry(invite, SystemClock.elapsedRealtime() + inviteTtlMs));
+        if (invite.getCallSid() != null) {
+            idsByCallSid.put(invite.getCallSid(), id);
+        }
+        return id;
+    }
+
+    /**
+     * Registers an invite under an id handed out earlier, e.g. by the headless invite handling before the plugin loaded.
+     */
+    public void put(String id, CallInvite invite) {
+        evictExpired();
+
+        invitesById.put(id, new Entry(invite, SystemClock.elapsedRealtime() + inviteTtlMs));
+        if (invite.getCallSid() != null) {
+            idsByCallSid.put(invite.getCallSid(), id);
+        }
+    }
+
+    @Nullable
+    public CallInvite get(@Nullable String id) {
+        if (id == null) {
+            return null;
+        }
+        Entry entry = invitesById.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, SystemClock.elapsedRealtime())) {
+            expire(id, entry);
+            return null;
+        }
+        return entry.invite;
+    }
+
+    /**
+     * Wall clock time the invite was registered, or 0 if it is not pending.
+     */
+    public long getReceivedAt(@Nullable String id) {
+        Entry entry = id != null ? invitesById.get(id) : null;
+        return entry != null ? entry.receivedAt : 0;
+    }
+
+    @Nullable
+    public CallInvite remove(@Nullable String id) {
+        if (id == null) {
+            return null;
+        }
+        Entry entry = invitesById.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.invite.getCallSid() != null) {
+            idsByCallSid.remove(entry.invite.getCallSid(), id);
+        }
+        return entry.invite;
+    }
+
+    /**
+     * Returns the id of the invite with the given Twilio CallSid, or null if it is not pending.
+     */
+    @Nullable
+    public String findIdByCallSid(@Nullable String callSid) {
+        return callSid != null ? idsByCallSid.get(callSid) : null;
+    }
+
+    /**
+     * Removes the invite with the given Twilio CallSid and returns its id, or null if it was not pending.
+     */
+    @Nullable
+    public String removeByCallSid(@Nullable String callSid) {
+        String id = findIdByCallSid(callSid);
+        if (id != null && remove(id) != null) {
+            return id;
+        }
+        return null;
+    }
+
+    /**
+     * Pending invites by id, in no particular order.
+     */
+    public Map<String, CallInvite> snapshot() {
+        evictExpired();
+
+        Map<String, CallInvite> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> entry : invitesById.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().invite);
+        }
+        return result;
+    }
+
+    public void clear() {
+        invitesById.clear();
+        idsByCallSid.clear();
+    }
+
+    public int size() {
+        return invitesById.size();
+    }
+
+    /**
+     * Evicts the invites older than their time to live.
+     */
+    public void evictExpired() {
+        long now = SystemClock.elapsedRealtime();
+        for (Map.Entry<String, Entry> entry : invitesById.entrySet()) {
+            if (isExpired(entry.getValue(), now)) {
+                expire(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void expire(String id, Entry entry) {
+        // Only the thread that removes the entry reports it
+        if (!invitesById.remove(id, entry)) {
+            return;
+        }
+        CallInvite invite = entry.invite;
+        if (invite.getCallSid() != null) {
+            idsByCallSid.remove(invite.getCallSid(), id);
+        }
+        Log.d(TAG, "Evicted stale call invite: " + id);
+
+        ExpiryListener listener = expiryListener;
+        if (listener != null) {
+            listener.onInviteExpired(id, invite, entry.receivedAt);
+        }
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        return now >= entry.expiresAt;
+    }
+}
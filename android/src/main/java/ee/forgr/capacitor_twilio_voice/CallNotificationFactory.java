@@ -0,0 +1,235 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.app.Person;
+import androidx.core.content.ContextCompat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the incoming and ongoing call notifications.
+ * The launcher activity, drawable ids and notification permission are resolved once per process, and each builder
+ * is created once with the fields that never change; a notification only sets its per-call fields.
+ */
+public class CallNotificationFactory {
+
+    private static final String TAG = "CallNotificationFactory";
+    private static final String INCOMING_CALL_GROUP = "ee.forgr.capacitor_twilio_voice.INCOMING_CALLS";
+    static final String INCOMING_CALL_CHANNEL_ID = "twilio_voice_channel";
+    private static final String INCOMING_CALL_CHANNEL_NAME = "Twilio Voice Calls";
+    private static final int INCOMING_CALL_SUMMARY_NOTIFICATION_ID = 1000;
+
+    private static volatile Class<?> mainActivityClass;
+    private static final Map<String, Integer> drawableIds = new ConcurrentHashMap<>();
+    // A revoked permission kills the process, so only a grant is worth remembering
+    private static volatile boolean canPostNotifications = false;
+
+    private final Context context;
+    private NotificationCompat.Builder incomingBuilder;
+    private NotificationCompat.Builder ongoingBuilder;
+
+    public CallNotificationFactory(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void createIncomingCallChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                INCOMING_CALL_CHANNEL_ID,
+                INCOMING_CALL_CHANNEL_NAME,
+                NotificationManager.IMPORTANCE_HIGH
+            );
+            channel.setDescription("Incoming voice calls");
+            channel.enableLights(true);
+            channel.enableVibration(true);
+            channel.setLockscreenVisibility(NotificationCompat.VISIBILITY_PUBLIC);
+
+            NotificationManager notificationManager = context.getSystemService(NotificationManager.class);
+            if (notificationManager != null) {
+                notificationManager.createNotificationChannel(channel);
+            }
+        }
+    }
+
+    /**
+     * Dismisses the notification of one invite and frees its slot. Returns the number of invites still shown.
+     */
+    public int cancelIncomingCall(@Nullable String inviteId) {
+        InviteNotificationSlots slots = InviteNotificationSlots.incomingCalls();
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+        Integer slot = slots.release(inviteId);
+        if (slot != null) {
+            notificationManager.cancel(slots.notificationId(slot));
+        }
+        updateIncomingCallSummary();
+        return slots.size();
+    }
+
+    /**
+     * Posts the group summary while more than one invite is shown, and removes it otherwise.
+     */
+    public void updateIncomingCallSummary() {
+        int inviteCount = InviteNotificationSlots.incomingCalls().size();
+        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+        if (inviteCount > 1 && canPostNotifications()) {
+            notificationManager.notify(INCOMING_CALL_SUMMARY_NOTIFICATION_ID, buildIncomingCallSummary(inviteCount));
+        } else {
+            notificationManager.cancel(INCOMING_CALL_SUMMARY_NOTIFICATION_ID);
+        }
+    }
+
+    public static void setMainActivityClass(Class<?> activityClass) {
+        mainActivityClass = activityClass;
+    }
+
+    /**
+     * The app's launcher activity, falling back to the standard Capacitor {@code MainActivity}.
+     */
+    @Nullable
+    public static Class<?> getMainActivityClass(Context context) {
+        Class<?> activityClass = mainActivityClass;
+        if (activityClass != null) {
+            return activityClass;
+        }
+
+        String packageName = context.getPackageName();
+        Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(packageName);
+        if (launchIntent != null && launchIntent.getComponent() != null) {
+            try {
+                activityClass = Class.forName(launchIntent.getComponent().getClassName());
+            } catch (ClassNotFoundException e) {
+                Log.e(TAG, "Could not find main activity class", e);
+            }
+        }
+
+        if (activityClass == null) {
+            try {
+                activityClass = Class.forName(packageName + ".MainActivity");
+            } catch (ClassNotFoundException e) {
+                Log.e(TAG, "Could not find MainActivity", e);
+                return null;
+            }
+        }
+
+        mainActivityClass = activityClass;
+        return activityClass;
+    }
+
+    /**
+     * Id of a drawable of the app, or the system call icon if the app does not have it.
+     */
+    public static int getDrawableId(Context context, String drawableName) {
+        return drawableIds.computeIfAbsent(drawableName, (name) -> {
+            int id = context.getResources().getIdentifier(name, "drawable", context.getPackageName());
+            if (id == 0) {
+                Log.w(TAG, "Could not find drawable: " + name + ", using default");
+                return android.R.drawable.ic_menu_call;
+            }
+            return id;
+        });
+    }
+
+    public boolean canPostNotifications() {
+        if (canPostNotifications) {
+            return true;
+        }
+        canPostNotifications =
+            ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS) == PackageManager.PERMISSION_GRANTED;
+        return canPostNotifications;
+    }
+
+    public synchronized Notification buildIncomingCall(
+        String channelId,
+        String callerName,
+        PendingIntent fullScreenIntent,
+        PendingIntent acceptIntent,
+        PendingIntent rejectIntent,
+        PendingIntent deleteIntent
+    ) {
+        if (incomingBuilder == null) {
+            incomingBuilder = new NotificationCompat.Builder(context, channelId)
+                .setSmallIcon(android.R.drawable.ic_menu_call)
+                .setContentTitle("Incoming Call")
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setCategory(NotificationCompat.CATEGORY_CALL)
+                .setAutoCancel(false)
+                .setOngoing(true)
+                .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+                .setDefaults(NotificationCompat.DEFAULT_VIBRATE)
+                .setGroup(INCOMING_CALL_GROUP)
+                .setTimeoutAfter(30000); // Auto-dismiss after 30 seconds
+        }
+
+        // Create Person object for the caller
+        Person caller = new Person.Builder().setName(callerName).setImportant(true).build();
+
+        // Create CallStyle notification with proper colored buttons
+        NotificationCompat.CallStyle callStyle = NotificationCompat.CallStyle.forIncomingCall(caller, rejectIntent, acceptIntent)
+            .setAnswerButtonColorHint(0xFF4CAF50) // Green color for accept button
+            .setDeclineButtonColorHint(0xFFF44336); // Red color for reject button
+
+        return incomingBuilder
+            .setWhen(System.currentTimeMillis())
+            .setContentText(callerName + " is calling")
+            .setFullScreenIntent(fullScreenIntent, true)
+            .setContentIntent(fullScreenIntent)
+            // Sent when the notification times out or is dismissed, so its slot is freed
+            .setDeleteIntent(deleteIntent)
+            .setStyle(callStyle)
+            .build();
+    }
+
+    private Notification buildIncomingCallSummary(int inviteCount) {
+        return new NotificationCompat.Builder(context, INCOMING_CALL_CHANNEL_ID)
+            .setSmallIcon(android.R.drawable.ic_menu_call)
+            .setContentTitle("Incoming Calls")
+            .setContentText(inviteCount + " incoming calls")
+            .setCategory(NotificationCompat.CATEGORY_CALL)
+            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .setGroup(INCOMING_CALL_GROUP)
+            .setGroupSummary(true)
+            // The invites themselves ring, the summary stays silent
+            .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_CHILDREN)
+            .setOnlyAlertOnce(true)
+            .build();
+    }
+
+    public synchronized Notification buildOngoingCall(
+        String channelId,
+        String contentText,
+        PendingIntent contentIntent,
+        List<NotificationCompat.Action> actions
+    ) {
+        if (ongoingBuilder == null) {
+            ongoingBuilder = new NotificationCompat.Builder(context, channelId)
+                .setSmallIcon(getDrawableId(context, "ic_notification_call"))
+                .setContentTitle("🔊 Ongoing Call")
+                .setOngoing(true)
+                .setAutoCancel(false)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setCategory(NotificationCompat.CATEGORY_CALL)
+                .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+                .setColorized(true)
+                .setColor(0xFF2196F3); // Beautiful blue color
+        }
+
+        ongoingBuilder.clearActions();
+        for (NotificationCompat.Action action : actions) {
+            ongoingBuilder.addAction(action);
+        }
+        return ongoingBuilder.setWhen(System.currentTimeMillis()).setContentText(contentText).setContentIntent(contentIntent).build();
+    }
+}
@@ -0,0 +1,325 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.getcapacitor.JSObject;
+import com.twilio.voice.Call;
+import com.twilio.voice.LocalAudioTrackStats;
+import com.twilio.voice.RemoteAudioTrackStats;
+import com.twilio.voice.StatsReport;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples {@link Call#getStats} for every connected call and reports aggregated call quality.
+ * Samples go into fixed-size primitive rings, one per call, so polling allocates nothing per sample beyond the
+ * SDK's own reports. Aggregates of the samples taken since the previous one are reported at most once per emit
+ * interval, and a summary of the whole call is kept when it ends. Runs on the main thread, where the calls live.
+ */
+public class CallQualityMonitor {
+
+    private static final String TAG = "CallQualityMonitor";
+
+    static final long DEFAULT_SAMPLE_INTERVAL_MS = 1000;
+    static final long DEFAULT_EMIT_INTERVAL_MS = 5000;
+    static final int RING_CAPACITY = 64;
+    private static final int MAX_SUMMARIES = 16;
+
+    public interface Listener {
+        void onCallQualitySample(Call call, Summary sample);
+    }
+
+    /**
+     * Aggregate of a number of samples: jitter and round trip time in milliseconds, packet loss in percent and an
+     * E-model MOS estimate between 1 and 4.5.
+     */
+    public static final class Summary {
+
+        public final int samples;
+        public final double averageJitterMs;
+        public final int maxJitterMs;
+        public final double averageRttMs;
+        public final int maxRttMs;
+        public final double packetLossPercent;
+        public final double averageMos;
+        public final double minMos;
+
+        Summary(
+            int samples,
+            double averageJitterMs,
+            int maxJitterMs,
+            double averageRttMs,
+            int maxRttMs,
+            double packetLossPercent,
+            double averageMos,
+            double minMos
+        ) {
+            this.samples = samples;
+            this.averageJitterMs = averageJitterMs;
+            this.maxJitterMs = maxJitterMs;
+            this.averageRttMs = averageRttMs;
+            this.maxRttMs = maxRttMs;
+            this.packetLossPercent = packetLossPercent;
+            this.averageMos = averageMos;
+            this.minMos = minMos;
+        }
+
+        public JSObject toJSObject() {
+            JSObject data = new JSObject();
+            data.put("samples", samples);
+            data.put("averageJitterMs", round(averageJitterMs));
+            data.put("maxJitterMs", maxJitterMs);
+            data.put("averageRttMs", round(averageRttMs));
+            data.put("maxRttMs", maxRttMs);
+            data.put("packetLossPercent", round(packetLossPercent));
+            data.put("averageMos", round(averageMos));
+            data.put("minMos", round(minMos));
+            return data;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    // Samples of one call; the totals cover the whole call, the rings only the latest samples
+    private static final class Track {
+
+        final int[] jitterMs = new int[RING_CAPACITY];
+        final int[] rttMs = new int[RING_CAPACITY];
+        final float[] lossPercent = new float[RING_CAPACITY];
+        final float[] mos = new float[RING_CAPACITY];
+        int head = 0;
+        int sinceEmit = 0;
+        long lastEmitAt;
+
+        long previousLost = 0;
+        long previousReceived = 0;
+
+        int totalSamples = 0;
+        long totalJitterMs = 0;
+        int maxJitterMs = 0;
+        long totalRttMs = 0;
+        int maxRttMs = 0;
+        long totalLost = 0;
+        long totalReceived = 0;
+        double totalMos = 0;
+        double minMos = Double.MAX_VALUE;
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Listener listener;
+    private final Map<Call, Track> tracks = new HashMap<>();
+    private final Map<String, Summary> summaries = new LinkedHashMap<String, Summary>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Summary> eldest) {
+            return size() > MAX_SUMMARIES;
+        }
+    };
+    private long sampleIntervalMs = DEFAULT_SAMPLE_INTERVAL_MS;
+    private long emitIntervalMs = DEFAULT_EMIT_INTERVAL_MS;
+
+    private final Runnable poll = new Runnable() {
+        @Override
+        public void run() {
+            for (Map.Entry<Call, Track> entry : tracks.entrySet()) {
+                Call call = entry.getKey();
+                Track track = entry.getValue();
+                call.getStats((reports) -> record(call, track, reports));
+            }
+            scheduleNextPoll();
+        }
+    };
+
+    public CallQualityMonitor(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param sampleIntervalMs how often stats are sampled, 0 disables sampling
+     * @param emitIntervalMs minimum time between two samples reported for the same call
+     */
+    public void configure(long sampleIntervalMs, long emitIntervalMs) {
+        this.sampleIntervalMs = Math.max(0, sampleIntervalMs);
+        this.emitIntervalMs = Math.max(0, emitIntervalMs);
+        Log.d(TAG, "Sampling every " + this.sampleIntervalMs + "ms, reporting every " + this.emitIntervalMs + "ms");
+        handler.removeCallbacks(poll);
+        scheduleNextPoll();
+    }
+
+    public void start(Call call) {
+        if (tracks.containsKey(call)) {
+            return;
+        }
+        Track track = new Track();
+        track.lastEmitAt = SystemClock.elapsedRealtime();
+        tracks.put(call, track);
+        if (tracks.size() == 1) {
+            scheduleNextPoll();
+        }
+    }
+
+    /**
+     * Stops sampling the call and returns the summary of the whole call, or null if nothing was sampled.
+     */
+    @Nullable
+    public Summary stop(Call call) {
+        Track track = tracks.remove(call);
+        if (tracks.isEmpty()) {
+            handler.removeCallbacks(poll);
+        }
+        if (track == null || track.totalSamples == 0) {
+            return null;
+        }
+
+        Summary summary = new Summary(
+            track.totalSamples,
+            (double) track.totalJitterMs / track.totalSamples,
+            track.maxJitterMs,
+            (double) track.totalRttMs / track.totalSamples,
+            track.maxRttMs,
+            lossPercent(track.totalLost, track.totalReceived),
+            track.totalMos / track.totalSamples,
+            track.minMos
+        );
+        if (call.getSid() != null) {
+            summaries.put(call.getSid(), summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Summary of a call that ended recently, or null if it was not sampled.
+     */
+    @Nullable
+    public Summary getSummary(@Nullable String callSid) {
+        return callSid != null ? summaries.get(callSid) : null;
+    }
+
+    public void stopAll() {
+        handler.removeCallbacks(poll);
+        tracks.clear();
+    }
+
+    private void scheduleNextPoll() {
+        if (sampleIntervalMs > 0 && !tracks.isEmpty()) {
+            handler.postDelayed(poll, sampleIntervalMs);
+        }
+    }
+
+    private void record(Call call, Track track, List<StatsReport> reports) {
+        if (tracks.get(call) != track) {
+            // Ended while the stats were collected
+            return;
+        }
+
+        int jitterMs = 0;
+        int rttMs = 0;
+        long lost = 0;
+        long received = 0;
+        for (StatsReport report : reports) {
+            for (RemoteAudioTrackStats stats : report.getRemoteAudioTrackStats()) {
+                jitterMs = Math.max(jitterMs, stats.jitter);
+                lost += stats.packetsLost;
+                received += stats.packetsReceived;
+            }
+            for (LocalAudioTrackStats stats : report.getLocalAudioTrackStats()) {
+                rttMs = Math.max(rttMs, (int) stats.roundTripTime);
+            }
+        }
+
+        // The SDK reports cumulative packet counts, the loss of this sample is the difference
+        long lostDelta = Math.max(0, lost - track.previousLost);
+        long receivedDelta = Math.max(0, received - track.previousReceived);
+        track.previousLost = lost;
+        track.previousReceived = received;
+        float loss = (float) lossPercent(lostDelta, receivedDelta);
+        float mos = (float) estimateMos(rttMs, jitterMs, loss);
+
+        int i = track.head;
+        track.jitterMs[i] = jitterMs;
+        track.rttMs[i] = rttMs;
+        track.lossPercent[i] = loss;
+        track.mos[i] = mos;
+        track.head = (i + 1) % RING_CAPACITY;
+        track.sinceEmit = Math.min(track.sinceEmit + 1, RING_CAPACITY);
+
+        track.totalSamples++;
+        track.totalJitterMs += jitterMs;
+        track.maxJitterMs = Math.max(track.maxJitterMs, jitterMs);
+        track.totalRttMs += rttMs;
+        track.maxRttMs = Math.max(track.maxRttMs, rttMs);
+        track.totalLost += lostDelta;
+        track.totalReceived += receivedDelta;
+        track.totalMos += mos;
+        track.minMos = Math.min(track.minMos, mos);
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - track.lastEmitAt >= emitIntervalMs) {
+            track.lastEmitAt = now;
+            Summary sample = aggregateSinceEmit(track);
+            track.sinceEmit = 0;
+            if (listener != null) {
+                listener.onCallQualitySample(call, sample);
+            }
+        }
+    }
+
+    private static Summary aggregateSinceEmit(Track track) {
+        int count = track.sinceEmit;
+        long jitterSum = 0;
+        int jitterMax = 0;
+        long rttSum = 0;
+        int rttMax = 0;
+        double lossSum = 0;
+        double mosSum = 0;
+        double mosMin = Double.MAX_VALUE;
+        for (int n = 1; n <= count; n++) {
+            int i = (track.head - n + RING_CAPACITY) % RING_CAPACITY;
+            jitterSum += track.jitterMs[i];
+            jitterMax = Math.max(jitterMax, track.jitterMs[i]);
+            rttSum += track.rttMs[i];
+            rttMax = Math.max(rttMax, track.rttMs[i]);
+            lossSum += track.lossPercent[i];
+            mosSum += track.mos[i];
+            mosMin = Math.min(mosMin, track.mos[i]);
+        }
+        return new Summary(
+            count,
+            (double) jitterSum / count,
+            jitterMax,
+            (double) rttSum / count,
+            rttMax,
+            lossSum / count,
+            mosSum / count,
+            mosMin
+        );
+    }
+
+    private static double lossPercent(long lost, long received) {
+        long total = lost + received;
+        return total > 0 ? 100.0 * lost / total : 0;
+    }
+
+    /**
+     * Simplified ITU-T G.107 E-model: the R factor is lowered by the one-way delay (half the round trip plus the
+     * jitter buffer) and by packet loss, then mapped to a MOS.
+     */
+    static double estimateMos(int rttMs, int jitterMs, float lossPercent) {
+        double effectiveLatency = rttMs / 2.0 + jitterMs * 2 + 10;
+        double r = effectiveLatency < 160 ? 93.2 - effectiveLatency / 40 : 93.2 - (effectiveLatency - 120) / 10;
+        r -= lossPercent * 2.5;
+        if (r <= 0) {
+            return 1;
+        }
+        if (r >= 100) {
+            return 4.5;
+        }
+        return Math.min(4.5, 1 + 0.035 * r + 0.000007 * r * (r - 60) * (100 - r));
+    }
+}
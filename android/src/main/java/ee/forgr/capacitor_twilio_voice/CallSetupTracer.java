@@ -0,0 +1,208 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times the setup of each call, from the tap on call or the invite push until the call connects.
+ * The plugin, the FCM service and {@link VoiceCallService} stamp {@link SystemClock#elapsedRealtime()} at each
+ * stage under a trace id: the client call id of an outgoing call, the Twilio CallSid of an invite. Stages are
+ * kept in the order they happened; a stage stamped twice keeps its first time.
+ */
+public final class CallSetupTracer {
+
+    private static final String TAG = "CallSetupTracer";
+
+    // Outgoing calls
+    public static final String STAGE_MAKE_CALL = "makeCall";
+    public static final String STAGE_SERVICE_REQUESTED = "serviceRequested";
+    public static final String STAGE_SERVICE_STARTED = "serviceStarted";
+    public static final String STAGE_CONNECT_STARTED = "connectStarted";
+    public static final String STAGE_RINGING = "ringing";
+
+    // Incoming calls
+    public static final String STAGE_PUSH_RECEIVED = "pushReceived";
+    public static final String STAGE_INVITE_PARSED = "inviteParsed";
+    public static final String STAGE_INVITE_DEQUEUED = "inviteDequeued";
+    public static final String STAGE_RINGTONE_STARTED = "ringtoneStarted";
+    public static final String STAGE_NOTIFICATION_SHOWN = "notificationShown";
+    public static final String STAGE_ACCEPT_REQUESTED = "acceptRequested";
+    public static final String STAGE_SERVICE_ACCEPT = "serviceAccept";
+    public static final String STAGE_ACCEPT_SENT = "acceptSent";
+
+    public static final String STAGE_CONNECTED = "connected";
+    public static final String STAGE_FAILED = "failed";
+
+    public static final String DIRECTION_INCOMING = "incoming";
+    public static final String DIRECTION_OUTGOING = "outgoing";
+
+    // Calls being set up at the same time, and finished setups kept for getCallTimings
+    private static final int MAX_ACTIVE_TRACES = 16;
+    private static final int MAX_FINISHED_TRACES = 16;
+
+    public interface Listener {
+        void onCallSetupFinished(Timings timings);
+    }
+
+    /**
+     * Stages of one call setup, with their times relative to the first stage.
+     */
+    public static final class Timings {
+
+        public final String traceId;
+        public final String direction;
+
+        @Nullable
+        public String callSid;
+
+        final List<String> stages = new ArrayList<>();
+        final List<Long> times = new ArrayList<>();
+
+        Timings(String traceId, String direction) {
+            this.traceId = traceId;
+            this.direction = direction;
+        }
+
+        public boolean isConnected() {
+            return stages.contains(STAGE_CONNECTED);
+        }
+
+        public long getTotalMs() {
+            return times.isEmpty() ? 0 : times.get(times.size() - 1) - times.get(0);
+        }
+
+        public JSObject toJSObject() {
+            JSObject data = new JSObject();
+            data.put("callSid", callSid);
+            data.put("direction", direction);
+            data.put("connected", isConnected());
+            data.put("totalMs", getTotalMs());
+
+            JSArray stageArray = new JSArray();
+            for (int i = 0; i < stages.size(); i++) {
+                JSObject stage = new JSObject();
+                stage.put("name", stages.get(i));
+                stage.put("atMs", times.get(i) - times.get(0));
+                stage.put("durationMs", i == 0 ? 0 : times.get(i) - times.get(i - 1));
+                stageArray.put(stage);
+            }
+            data.put("stages", stageArray);
+            return data;
+        }
+
+        void stamp(String stage, long at) {
+            if (stages.contains(stage)) {
+                return;
+            }
+            // Stamps from different threads can arrive out of order
+            int i = times.size();
+            while (i > 0 && times.get(i - 1) > at) {
+                i--;
+            }
+            stages.add(i, stage);
+            times.add(i, at);
+        }
+    }
+
+    private static final Map<String, Timings> active = new LinkedHashMap<String, Timings>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Timings> eldest) {
+            return size() > MAX_ACTIVE_TRACES;
+        }
+    };
+    private static final Map<String, Timings> finished = new LinkedHashMap<String, Timings>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Timings> eldest) {
+            return size() > MAX_FINISHED_TRACES;
+        }
+    };
+
+    @Nullable
+    private static Listener listener;
+
+    private CallSetupTracer() {}
+
+    public static synchronized void setListener(@Nullable Listener newListener) {
+        listener = newListener;
+    }
+
+    /**
+     * Starts the trace of a call setup with its first stage, replacing an earlier trace with the same id.
+     */
+    public static synchronized void begin(@Nullable String traceId, String direction, String stage, long at) {
+        if (traceId == null) {
+            return;
+        }
+        Timings timings = new Timings(traceId, direction);
+        timings.stamp(stage, at);
+        active.remove(traceId);
+        active.put(traceId, timings);
+    }
+
+    public static void stamp(@Nullable String traceId, String stage) {
+        stamp(traceId, stage, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Stamps a stage of a call setup in progress. Unknown traces are ignored, e.g. when the plugin was not loaded
+     * for the first stages.
+     */
+    public static synchronized void stamp(@Nullable String traceId, String stage, long at) {
+        Timings timings = traceId != null ? active.get(traceId) : null;
+        if (timings != null) {
+            timings.stamp(stage, at);
+        }
+    }
+
+    /**
+     * Ends the trace with a connected or failed stage and reports it.
+     */
+    public static void finish(@Nullable String traceId, @Nullable String callSid, boolean connected) {
+        Timings timings;
+        Listener currentListener;
+        synchronized (CallSetupTracer.class) {
+            timings = traceId != null ? active.remove(traceId) : null;
+            if (timings == null) {
+                return;
+            }
+            timings.callSid = callSid;
+            timings.stamp(connected ? STAGE_CONNECTED : STAGE_FAILED, SystemClock.elapsedRealtime());
+            finished.put(callSid != null ? callSid : traceId, timings);
+            currentListener = listener;
+        }
+
+        Log.d(TAG, "Call setup " + (connected ? "connected" : "failed") + " after " + timings.getTotalMs() + "ms: " + callSid);
+        if (currentListener != null) {
+            currentListener.onCallSetupFinished(timings);
+        }
+    }
+
+    /**
+     * Drops the trace of a setup that will not complete, e.g. a rejected or cancelled invite.
+     */
+    public static synchronized void discard(@Nullable String traceId) {
+        if (traceId != null) {
+            active.remove(traceId);
+        }
+    }
+
+    /**
+     * Finished call setups, newest first, optionally only the one of the given CallSid.
+     */
+    public static synchronized List<Timings> getFinished(@Nullable String callSid) {
+        List<Timings> result = new ArrayList<>();
+        for (Timings timings : finished.values()) {
+            if (callSid == null || callSid.equals(timings.callSid)) {
+                result.add(0, timings);
+            }
+        }
+        return result;
+    }
+}
@@ -5,8 +5,7 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.KeyguardManager;
 import android.app.KeyguardManager;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
+import android.app.Notification;
 import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.ComponentName;
@@ -16,16 +15,15 @@ import android.content.ServiceConnection;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.media.AudioAttributes;
-import android.media.AudioManager;
-import android.media.MediaPlayer;
-import android.media.RingtoneManager;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.provider.Settings;
-import android.util.Base64;
 import android.util.Log;
 import android.widget.Toast;
 import androidx.activity.result.ActivityResultLauncher;
@@ -62,6 +60,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -86,10 +90,10 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     public static CapacitorTwilioVoicePlugin instance;
 
     private String accessToken;
+    private AccessTokenClaims tokenClaims;
     private String fcmToken;
-    private Map<String, CallInvite> activeCallInvites = new HashMap<>();
+    private final CallInviteRegistry activeCallInvites = new CallInviteRegistry();
     private Map<String, Call> activeCalls = new HashMap<>();
-    private Map<UUID, Call> callsByUuid = new HashMap<>();
     private Call activeCall;
 
     private AudioSwitch audioSwitch;
@@ -99,16 +103,32 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     private Class<?> mainActivityClass;
 
     // Notification and sound management
-    private static final String NOTIFICATION_CHANNEL_ID = "twilio_voice_channel";
-    private static final String NOTIFICATION_CHANNEL_NAME = "Twilio Voice Calls";
-    private static final int INCOMING_CALL_NOTIFICATION_ID = 1001;
+    private static final String NOTIFICATION_CHANNEL_ID = CallNotificationFactory.INCOMING_CALL_CHANNEL_ID;
     private static final String ACTION_ACCEPT_CALL = "ACTION_ACCEPT_CALL";
     private static final String ACTION_REJECT_CALL = "ACTION_REJECT_CALL";
     private static final String EXTRA_CALL_SID = "EXTRA_CALL_SID";
 
-    private MediaPlayer ringtonePlayer;
+    private CallNotificationFactory notificationFactory;
+    private final InviteNotificationSlots inviteNotificationSlots = InviteNotificationSlots.incomingCalls();
+    private RingtonePlayer ringtonePlayer;
     private Vibrator vibrator;
 
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable inviteExpiryCheck = activeCallInvites::evictExpired;
+
+    // Access token expiry watcher. Handler delays stop in deep sleep, so the watcher never waits longer than
+    // TOKEN_EXPIRY_CHECK_MAX_DELAY_MS and the wall clock is also checked on resume and before each outgoing call
+    private static final long TOKEN_EXPIRY_WARNING_MS = 5 * 60 * 1000;
+    private static final long TOKEN_EXPIRY_CHECK_MAX_DELAY_MS = 15 * 60 * 1000;
+    private final Runnable tokenExpiryWatcher = this::checkTokenExpiry;
+    // Main thread only
+    private boolean tokenExpiryNotified = false;
+
+    // Events emitted before JavaScript listens, and the accept requested by the launch intent
+    private final EventBuffer eventBuffer = new EventBuffer();
+    private final EventDispatcher eventDispatcher = new EventDispatcher(super::notifyListeners);
+    private String pendingAutoAcceptCallSid;
+
     // Permission handling
     private static final int REQUEST_CODE_RECORD_AUDIO_FOR_ACCEPT = 2001;
     private String pendingCallSidForPermission;
@@ -123,6 +143,13 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     private PluginCall pendingOutgoingCall;
     private String pendingOutgoingTo;
     private String pendingOutgoingCallerId;
+    private String pendingOutgoingClientCallId;
+
+    // makeCall promises waiting for Twilio to assign the CallSid, by client call id
+    private static final long MAKE_CALL_SID_TIMEOUT_MS = 10000;
+    private final Map<String, PluginCall> pendingMakeCalls = new ConcurrentHashMap<>();
+    // Client call ids of the outgoing calls started by the service, main thread only
+    private final Map<Call, String> outgoingClientCallIds = new HashMap<>();
     private PluginCall pendingPermissionCall;
     private long permissionRequestTimestamp = 0L;
     private int permissionAttemptCount = 0;
@@ -130,9 +157,14 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     private ActivityResultLauncher<String[]> micPermissionLauncher;
 
     // Voice Call Service
-    private VoiceCallService voiceCallService;
+    private static final long SERVICE_COMMAND_TIMEOUT_MS = 2000;
+    private volatile VoiceCallService voiceCallService;
     private boolean isServiceBound = false;
 
+    // Call quality sampling, applied to the service whenever it binds
+    private volatile long qualitySampleIntervalMs = CallQualityMonitor.DEFAULT_SAMPLE_INTERVAL_MS;
+    private volatile long qualityEmitIntervalMs = CallQualityMonitor.DEFAULT_EMIT_INTERVAL_MS;
+
     private final ServiceConnection serviceConnection = new ServiceConnection() {
         @Override
         public void onServiceConnected(ComponentName name, IBinder service) {
@@ -143,6 +175,9 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
             // Set up service listener to relay events to JavaScript
             voiceCallService.setServiceListener(serviceListener);
+            voiceCallService.configureQualityMonitoring(qualitySampleIntervalMs, qualityEmitIntervalMs);
+
+            runPendingAutoAccept();
         }
 
         @Override
@@ -157,8 +192,9 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     private final VoiceCallService.VoiceCallServiceListener serviceListener = new VoiceCallService.VoiceCallServiceListener() {
         @Override
         public void onCallConnected(Call call) {
-            activeCall = call;
+            activeCall = voiceCallService != null && voiceCallService.getActiveCall() != null ? voiceCallService.getActiveCall() : call;
             activeCalls.put(call.getSid(), call);
+            resolveMakeCall(call, "connected");
 
             JSObject data = new JSObject();
             data.put("callSid", call.getSid());
@@ -167,20 +203,64 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
         @Override
         public void onCallDisconnected(Call call, CallException error) {
-            activeCall = null;
-            activeCalls.remove(call.getSid());
+            rejectMakeCall(
+                outgoingClientCallIds.remove(call),
+                "Failed to start call: " + (error != null ? error.getMessage() : "call ended before it was assigned a CallSid")
+            );
+            activeCall = voiceCallService != null ? voiceCallService.getActiveCall() : null;
+            if (call.getSid() != null) {
+                activeCalls.remove(call.getSid());
+            }
 
             JSObject data = new JSObject();
             data.put("callSid", call.getSid());
             if (error != null) {
                 data.put("error", error.getMessage());
             }
+            CallQualityMonitor.Summary qualitySummary = voiceCallService != null
+                ? voiceCallService.getQualitySummary(call.getSid())
+                : null;
+            if (qualitySummary != null) {
+                data.put("qualitySummary", qualitySummary.toJSObject());
+            }
             notifyListeners("callDisconnected", data);
-            moveAppToBackgroundIfLocked();
+
+            // Keep the app in front while other calls are still on hold
+            if (activeCall == null) {
+                moveAppToBackgroundIfLocked();
+            }
+        }
+
+        @Override
+        public void onCallHoldChanged(Call call, boolean onHold) {
+            activeCall = voiceCallService != null ? voiceCallService.getActiveCall() : activeCall;
+
+            JSObject data = new JSObject();
+            data.put("callSid", call.getSid());
+            data.put("onHold", onHold);
+            notifyListeners("callHoldChanged", data);
+        }
+
+        @Override
+        public void onCallQualitySample(Call call, CallQualityMonitor.Summary sample) {
+            JSObject data = sample.toJSObject();
+            data.put("callSid", call.getSid());
+            notifyListeners("callQualitySample", data);
+        }
+
+        @Override
+        public void onOutgoingCallStarted(String clientCallId, @Nullable Call call) {
+            if (call == null) {
+                rejectMakeCall(clientCallId, "Failed to start call");
+                return;
+            }
+            outgoingClientCallIds.put(call, clientCallId);
         }
 
         @Override
         public void onCallRinging(Call call) {
+            resolveMakeCall(call, "ringing");
+
             JSObject data = new JSObject();
             data.put("callSid", call.getSid());
             notifyListeners("callRinging", data);
@@ -225,8 +305,8 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         @Override
         public void onCallInviteAccepted(CallInvite callInvite) {
             // Remove from active invites since it's now being handled by the service
-            activeCallInvites.remove(callInvite.getCallSid());
-            dismissIncomingCallNotification();
+            dismissIncomingCallNotification(activeCallInvites.removeByCallSid(callInvite.getCallSid()));
+            stopRingtone();
         }
     };
 
@@ -246,7 +326,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
         // Load stored access token
         SharedPreferences prefs = getSafeContext().getSharedPreferences("CapacitorTwilioVoice", Context.MODE_PRIVATE);
-        accessToken = prefs.getString(PREF_ACCESS_TOKEN, null);
+        setAccessToken(prefs.getString(PREF_ACCESS_TOKEN, null), null);
 
         // Initialize FCM and register for push notifications
         initializeFCM();
@@ -260,6 +340,16 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         // Initialize sound and vibration
         initializeSoundAndVibration();
 
+        // Invites never answered nor cancelled by Twilio stop ringing once they expire
+        activeCallInvites.setExpiryListener((id, invite, receivedAt) ->
+            mainHandler.post(() -> handleExpiredCallInvite(id, invite, receivedAt))
+        );
+
+        // Take over invites received while the plugin was not loaded, before the launch intent refers to them
+        replayHeadlessCallInvites();
+
+        CallSetupTracer.setListener((timings) -> notifyListeners("callSetupTimings", timings.toJSObject()));
+
         // Check if app was launched to auto-accept a call
         checkForAutoAcceptCall();
 
@@ -285,43 +375,76 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
     // Service cleanup is handled when the activity is destroyed
 
+    private void replayHeadlessCallInvites() {
+        Map<String, CallInvite> invites = HeadlessCallInvites.drain(getSafeContext());
+        if (invites.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, CallInvite> entry : invites.entrySet()) {
+            Log.d(TAG, "Replaying call invite received while the app was not running: " + entry.getKey());
+            // Same id as the notification already shown for it
+            activeCallInvites.put(entry.getKey(), entry.getValue());
+            // Buffered until JavaScript registers a listener
+            notifyCallInviteReceived(entry.getKey(), entry.getValue());
+        }
+        mainHandler.postDelayed(inviteExpiryCheck, activeCallInvites.getInviteTtlMs());
+        startRingtone(null);
+    }
+
     private void checkForAutoAcceptCall() {
         try {
             Activity activity = getActivity();
             if (activity != null) {
-                Intent intent = activity.getIntent();
-                if (intent != null) {
-                    // Check for auto-accept flag OR accept action
-                    boolean shouldAutoAccept =
-                        intent.getBooleanExtra("AUTO_ACCEPT_CALL", false) || ACTION_ACCEPT_CALL.equals(intent.getAction());
-
-                    if (shouldAutoAccept) {
-                        String callSid = intent.getStringExtra(EXTRA_CALL_SID);
-                        Log.d(TAG, "App launched with auto-accept for call: " + callSid + " (action: " + intent.getAction() + ")");
-
-                        if (callSid != null) {
-                            // Clear the intent extras and action to prevent repeated auto-accept
-                            intent.removeExtra("AUTO_ACCEPT_CALL");
-                            intent.removeExtra(EXTRA_CALL_SID);
-                            intent.setAction(null);
-
-                            // Delay the auto-accept slightly to ensure plugin is fully loaded
-                            new android.os.Handler().postDelayed(
-                                () -> {
-                                    Log.d(TAG, "Auto-accepting call: " + callSid);
-                                    ensureMicPermissionThenAccept(callSid);
-                                },
-                                500
-                            );
-                        }
-                    }
-                }
+                checkForAutoAcceptCall(activity.getIntent());
             }
         } catch (Exception e) {
             Log.e(TAG, "Error checking for auto-accept call", e);
         }
     }
 
+    // Accept from the notification while the app is running, it comes back to the existing activity
+    @Override
+    protected void handleOnNewIntent(Intent intent) {
+        super.handleOnNewIntent(intent);
+        checkForAutoAcceptCall(intent);
+    }
+
+    private void checkForAutoAcceptCall(@Nullable Intent intent) {
+        if (intent == null) {
+            return;
+        }
+        // Check for auto-accept flag OR accept action
+        boolean shouldAutoAccept = intent.getBooleanExtra("AUTO_ACCEPT_CALL", false) || ACTION_ACCEPT_CALL.equals(intent.getAction());
+
+        if (shouldAutoAccept) {
+            String callSid = intent.getStringExtra(EXTRA_CALL_SID);
+            Log.d(TAG, "App launched with auto-accept for call: " + callSid + " (action: " + intent.getAction() + ")");
+
+            if (callSid != null) {
+                // Clear the intent extras and action to prevent repeated auto-accept
+                intent.removeExtra("AUTO_ACCEPT_CALL");
+                intent.removeExtra(EXTRA_CALL_SID);
+                intent.setAction(null);
+
+                // Accepted as soon as the service is bound, so it reports the accepted invite back
+                pendingAutoAcceptCallSid = callSid;
+                runPendingAutoAccept();
+            }
+        }
+    }
+
+    private void runPendingAutoAccept() {
+        if (pendingAutoAcceptCallSid == null || !isServiceBound) {
+            return;
+        }
+
+        String callSid = pendingAutoAcceptCallSid;
+        pendingAutoAcceptCallSid = null;
+        Log.d(TAG, "Auto-accepting call: " + callSid);
+        ensureMicPermissionThenAccept(callSid);
+    }
+
     private void checkForIncomingCallNotification() {
         try {
             Activity activity = getActivity();
@@ -344,32 +467,27 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
                         // Check if we still have the call invite
                         CallInvite callInvite = activeCallInvites.get(callSid);
                         if (callInvite != null) {
-                            // Delay sending the event to ensure JavaScript is ready
-                            new android.os.Handler().postDelayed(
-                                () -> {
-                                    Log.d(TAG, "Sending incoming call event to JavaScript: " + callSid);
-
-                                    // Strip "client:" prefix from caller name for consistency
-                                    String fromValue = callFrom;
-                                    if (fromValue != null && fromValue.startsWith("client:")) {
-                                        fromValue = fromValue.substring(7); // Remove "client:" prefix
-                                    }
-                                    String callerNameValue = callerName != null ? callerName : callFrom;
-                                    if (callerNameValue != null && callerNameValue.startsWith("client:")) {
-                                        callerNameValue = callerNameValue.substring(7); // Remove "client:" prefix
-                                    }
-
-                                    JSObject data = new JSObject();
-                                    data.put("callSid", callSid);
-                                    data.put("from", fromValue);
-                                    data.put("to", callInvite.getTo());
-                                    data.put("callerName", callerNameValue);
-                                    data.put("openedFromNotification", true);
-
-                                    notifyListeners("callInviteReceived", data);
-                                },
-                                1000
-                            ); // Give JavaScript more time to initialize
+                            Log.d(TAG, "Sending incoming call event to JavaScript: " + callSid);
+
+                            // Strip "client:" prefix from caller name for consistency
+                            String fromValue = callFrom;
+                            if (fromValue.startsWith("client:")) {
+                                fromValue = fromValue.substring(7); // Remove "client:" prefix
+                            }
+                            String callerNameValue = callerName != null ? callerName : callFrom;
+                            if (callerNameValue.startsWith("client:")) {
+                                callerNameValue = callerNameValue.substring(7); // Remove "client:" prefix
+                            }
+
+                            JSObject data = new JSObject();
+                            data.put("callSid", callSid);
+                            data.put("from", fromValue);
+                            data.put("to", callInvite.getTo());
+                            data.put("callerName", callerNameValue);
+                            data.put("openedFromNotification", true);
+
+                            // Buffered until JavaScript registers a listener
+                            notifyListeners("callInviteReceived", data);
                         } else {
                             Log.w(TAG, "Call invite not found for SID: " + callSid + " (may have been cancelled)");
                         }
@@ -381,6 +499,29 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     }
 
+    @Override
+    @PluginMethod(returnType = PluginMethod.RETURN_NONE)
+    public void addListener(PluginCall call) {
+        super.addListener(call);
+
+        // Deliver what was emitted for this event before JavaScript was ready, in order
+        String eventName = call.getString("eventName");
+        if (eventName != null) {
+            for (JSObject data : eventBuffer.onListenerAdded(eventName)) {
+                eventDispatcher.dispatch(eventName, data);
+            }
+        }
+    }
+
+    @Override
+    protected void notifyListeners(String eventName, JSObject data) {
+        if (!hasListeners(eventName) && eventBuffer.offer(eventName, data)) {
+            Log.d(TAG, "JavaScript not listening yet, buffering " + eventName);
+            return;
+        }
+        eventDispatcher.dispatch(eventName, data);
+    }
+
     @Override
     protected void handleOnDestroy() {
         super.handleOnDestroy();
@@ -392,8 +533,19 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
 
         // Clean up ringtone and notifications
-        stopRingtone();
-        dismissIncomingCallNotification();
+        dismissAllIncomingCallNotifications();
+        eventBuffer.clear();
+        eventDispatcher.shutdown();
+        if (ringtonePlayer != null) {
+            ringtonePlayer.release();
+            ringtonePlayer = null;
+        }
+        mainHandler.removeCallbacks(tokenExpiryWatcher);
+        mainHandler.removeCallbacks(inviteExpiryCheck);
+        activeCallInvites.setExpiryListener(null);
+        CallSetupTracer.setListener(null);
+        pendingMakeCalls.clear();
+        outgoingClientCallIds.clear();
 
         // Clear plugin instance
         instance = null;
@@ -404,6 +556,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     @Override
     protected void handleOnResume() {
         super.handleOnResume();
+        checkTokenExpiry();
         Log.d(
             TAG,
             "handleOnResume: hasPermission=" +
@@ -445,6 +598,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
     public void setMainActivityClass(Class<?> mainActivityClass) {
         this.mainActivityClass = mainActivityClass;
+        CallNotificationFactory.setMainActivityClass(mainActivityClass);
     }
 
     private Class<?> resolveMainActivityClass() {
@@ -457,6 +611,8 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(context.getPackageName());
             if (launchIntent != null && launchIntent.getComponent() != null) {
                 this.mainActivityClass = Class.forName(launchIntent.getComponent().getClassName());
+                // Shared with the call service notifications
+                CallNotificationFactory.setMainActivityClass(this.mainActivityClass);
                 return this.mainActivityClass;
             } else {
                 Log.w(TAG, "resolveMainActivityClass: launch intent missing component for package " + context.getPackageName());
@@ -493,26 +649,17 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     }
 
     private void initializeNotifications() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                NOTIFICATION_CHANNEL_ID,
-                NOTIFICATION_CHANNEL_NAME,
-                NotificationManager.IMPORTANCE_HIGH
-            );
-            channel.setDescription("Incoming voice calls");
-            channel.enableLights(true);
-            channel.enableVibration(true);
-            channel.setLockscreenVisibility(NotificationCompat.VISIBILITY_PUBLIC);
-
-            NotificationManager notificationManager = getSafeContext().getSystemService(NotificationManager.class);
-            if (notificationManager != null) {
-                notificationManager.createNotificationChannel(channel);
-            }
-        }
+        notificationFactory = new CallNotificationFactory(getSafeContext());
+
+        notificationFactory.createIncomingCallChannel();
     }
 
     private void initializeSoundAndVibration() {
         vibrator = (Vibrator) getSafeContext().getSystemService(Context.VIBRATOR_SERVICE);
+
+        // Prepared in the background now so an incoming call starts ringing right away
+        ringtonePlayer = new RingtonePlayer(getSafeContext());
+        ringtonePlayer.prepare();
     }
 
     private void ensureMicPermissionThenAccept(String callSid) {
@@ -539,6 +686,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             return;
         }
 
+        CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_ACCEPT_REQUESTED);
         Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
         serviceIntent.setAction(VoiceCallService.ACTION_ACCEPT_CALL);
         serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_INVITE, callInvite);
@@ -546,6 +694,8 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
         try {
             getSafeContext().startForegroundService(serviceIntent);
+            // Other invites may still be pending, but nothing should ring over the answered call
+            stopRingtone();
             Log.d(TAG, "Call acceptance started via service (permission granted)");
         } catch (Exception e) {
             Log.e(TAG, "Error accepting call via service", e);
@@ -568,19 +718,15 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     }
 
-    private void startRingtone() {
+    /**
+     * @param traceId CallSid of the invite that starts ringing, to stamp its call setup trace
+     */
+    private void startRingtone(@Nullable String traceId) {
         try {
-            if (ringtonePlayer != null) {
-                stopRingtone();
+            if (ringtonePlayer == null) {
+                ringtonePlayer = new RingtonePlayer(getSafeContext());
             }
-
-            Uri ringtoneUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_RINGTONE);
-            ringtonePlayer = new MediaPlayer();
-            ringtonePlayer.setDataSource(getSafeContext(), ringtoneUri);
-            ringtonePlayer.setAudioStreamType(AudioManager.STREAM_RING);
-            ringtonePlayer.setLooping(true);
-            ringtonePlayer.prepare();
-            ringtonePlayer.start();
+            ringtonePlayer.start(traceId);
 
             // Start vibration pattern
             if (vibrator != null && vibrator.hasVibrator()) {
@@ -601,11 +747,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     private void stopRingtone() {
         try {
             if (ringtonePlayer != null) {
-                if (ringtonePlayer.isPlaying()) {
-                    ringtonePlayer.stop();
-                }
-                ringtonePlayer.release();
-                ringtonePlayer = null;
+                ringtonePlayer.stop();
             }
 
             if (vibrator != null) {
@@ -639,7 +781,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
                         prefs.edit().putString(PREF_FCM_TOKEN, fcmToken).apply();
 
                         // Register with Twilio if we have an access token
-                        if (accessToken != null && isTokenValid(accessToken)) {
+                        if (tokenClaims != null && tokenClaims.isValid()) {
                             performRegistration();
                         }
                     }
@@ -647,25 +789,57 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             );
     }
 
-    private boolean isTokenValid(String token) {
-        try {
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) return false;
+    /**
+     * Sets the access token together with its decoded claims and (re)schedules the expiry watcher.
+     * Pass null claims to decode them here.
+     */
+    private void setAccessToken(@Nullable String token, @Nullable AccessTokenClaims claims) {
+        accessToken = token;
+        tokenClaims = claims != null ? claims : AccessTokenClaims.parse(token);
 
-            // Use Android's Base64 (available since API 8) instead of Java's (API 26+)
-            String payload = new String(Base64.decode(parts[1], Base64.DEFAULT));
-            JSONObject json = new JSONObject(payload);
+        mainHandler.removeCallbacks(tokenExpiryWatcher);
+        mainHandler.post(() -> {
+            tokenExpiryNotified = false;
+            checkTokenExpiry();
+        });
+    }
 
-            long exp = json.getLong("exp");
-            long currentTime = System.currentTimeMillis() / 1000;
+    /**
+     * Emits {@code tokenWillExpire} once per token when the wall clock is within the warning window of its expiry,
+     * and otherwise checks again later. Runs on the main thread.
+     */
+    private void checkTokenExpiry() {
+        mainHandler.removeCallbacks(tokenExpiryWatcher);
+        AccessTokenClaims claims = tokenClaims;
+        if (claims == null || tokenExpiryNotified) {
+            return;
+        }
 
-            return currentTime < exp;
-        } catch (Exception e) {
-            Log.e(TAG, "Error validating token", e);
-            return false;
+        long untilWarning = claims.millisUntilExpiry() - TOKEN_EXPIRY_WARNING_MS;
+        if (untilWarning <= 0) {
+            tokenExpiryNotified = true;
+            notifyTokenWillExpire();
+        } else {
+            mainHandler.postDelayed(tokenExpiryWatcher, Math.min(untilWarning, TOKEN_EXPIRY_CHECK_MAX_DELAY_MS));
         }
     }
 
+    private void notifyTokenWillExpire() {
+        AccessTokenClaims claims = tokenClaims;
+        if (claims == null) {
+            return;
+        }
+
+        Log.d(TAG, "Access token expires in " + (claims.millisUntilExpiry() / 1000) + "s");
+        JSObject data = new JSObject();
+        data.put("expiresAt", claims.getExpiresAt());
+        data.put("secondsRemaining", Math.max(0, claims.millisUntilExpiry() / 1000));
+        if (claims.getIdentity() != null) {
+            data.put("identity", claims.getIdentity());
+        }
+        notifyListeners("tokenWillExpire", data);
+    }
+
     private void performRegistration() {
         if (accessToken == null || fcmToken == null) {
             Log.w(TAG, "Cannot register: missing access token or FCM token");
@@ -697,13 +871,14 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             return;
         }
 
-        if (!isTokenValid(token)) {
+        AccessTokenClaims claims = AccessTokenClaims.parse(token);
+        if (claims == null || !claims.isValid()) {
             call.reject("Invalid or expired access token");
             return;
         }
 
         // Store access token
-        accessToken = token;
+        setAccessToken(token, claims);
         SharedPreferences prefs = getSafeContext().getSharedPreferences("CapacitorTwilioVoice", Context.MODE_PRIVATE);
         prefs.edit().putString(PREF_ACCESS_TOKEN, token).apply();
 
@@ -731,17 +906,13 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         prefs.edit().remove(PREF_ACCESS_TOKEN).remove(PREF_FCM_TOKEN).apply();
 
         // Clear instance variables
-        accessToken = null;
+        setAccessToken(null, null);
 
         // End any active calls
         for (Call call1 : activeCalls.values()) {
             call1.disconnect();
         }
-        for (Call call1 : callsByUuid.values()) {
-            call1.disconnect();
-        }
         activeCalls.clear();
-        callsByUuid.clear();
         activeCallInvites.clear();
         activeCall = null;
 
@@ -759,16 +930,9 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
     @PluginMethod
     public void isLoggedIn(PluginCall call) {
-        boolean isLoggedIn = false;
-        String identity = null;
-
-        if (accessToken != null) {
-            isLoggedIn = isTokenValid(accessToken);
-
-            if (isLoggedIn) {
-                identity = extractIdentityFromToken(accessToken);
-            }
-        }
+        AccessTokenClaims claims = tokenClaims;
+        boolean isLoggedIn = claims != null && claims.isValid();
+        String identity = isLoggedIn ? claims.getIdentity() : null;
 
         JSObject ret = new JSObject();
         ret.put("isLoggedIn", isLoggedIn);
@@ -779,29 +943,13 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         call.resolve(ret);
     }
 
-    private String extractIdentityFromToken(String token) {
-        try {
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) return null;
-
-            // Use Android's Base64 (available since API 8) instead of Java's (API 26+)
-            String payload = new String(Base64.decode(parts[1], Base64.DEFAULT));
-            JSONObject json = new JSONObject(payload);
-            JSONObject grants = json.getJSONObject("grants");
-
-            return grants.optString("identity", null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error extracting identity from token", e);
-            return null;
-        }
-    }
-
     @PluginMethod
     public void makeCall(PluginCall call) {
         if (accessToken == null) {
             call.reject("No access token available. Please call login() first.");
             return;
         }
+        mainHandler.post(this::checkTokenExpiry);
 
         if (pendingOutgoingCall != null) {
             pendingOutgoingCall.setKeepAlive(false);
@@ -815,21 +963,31 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
         String callerId = call.getString("callerId");
 
+        // Correlates the stages of this call until Twilio assigns its CallSid
+        String clientCallId = UUID.randomUUID().toString();
+        CallSetupTracer.begin(
+            clientCallId,
+            CallSetupTracer.DIRECTION_OUTGOING,
+            CallSetupTracer.STAGE_MAKE_CALL,
+            SystemClock.elapsedRealtime()
+        );
+
         if (hasMicrophonePermission()) {
-            startOutgoingCall(call, to, callerId);
+            startOutgoingCall(call, to, callerId, clientCallId);
             return;
         }
 
         pendingOutgoingCall = call;
         pendingOutgoingTo = to;
         pendingOutgoingCallerId = callerId;
+        pendingOutgoingClientCallId = clientCallId;
         pendingPermissionAction = PendingPermissionAction.OUTGOING_CALL;
         permissionAttemptCount = 0;
         call.setKeepAlive(true);
         requestMicrophonePermission();
     }
 
-    private void startOutgoingCall(PluginCall call, String to, String callerId) {
+    private void startOutgoingCall(PluginCall call, String to, String callerId, String clientCallId) {
         Log.d(TAG, "startOutgoingCall: to=" + to + ", callerId=" + callerId);
         // Start call via the foreground service
         Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
@@ -837,16 +995,17 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_TO, to);
         serviceIntent.putExtra(VoiceCallService.EXTRA_CALLER_ID, callerId);
         serviceIntent.putExtra(VoiceCallService.EXTRA_ACCESS_TOKEN, accessToken);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_CLIENT_CALL_ID, clientCallId);
+        CallSetupTracer.stamp(clientCallId, CallSetupTracer.STAGE_SERVICE_REQUESTED);
+
+        // Resolved once the service reports the CallSid, see resolveMakeCall
+        pendingMakeCalls.put(clientCallId, call);
+        mainHandler.postDelayed(() -> resolveMakeCallWithoutSid(clientCallId), MAKE_CALL_SID_TIMEOUT_MS);
 
         try {
             getSafeContext().startForegroundService(serviceIntent);
-
-            JSObject ret = new JSObject();
-            ret.put("success", true);
-            ret.put("callSid", "pending"); // Will be updated when service connects
-            call.setKeepAlive(false);
-            call.resolve(ret);
         } catch (Exception e) {
+            pendingMakeCalls.remove(clientCallId);
             call.setKeepAlive(false);
             Log.e(TAG, "Error starting call service", e);
             call.reject("Failed to start call: " + e.getMessage());
@@ -855,6 +1014,48 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     }
 
+    private void resolveMakeCall(Call call, String state) {
+        if (call.getSid() == null) {
+            return;
+        }
+        String clientCallId = outgoingClientCallIds.remove(call);
+        PluginCall pending = clientCallId != null ? pendingMakeCalls.remove(clientCallId) : null;
+        if (pending == null) {
+            return;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        ret.put("callSid", call.getSid());
+        ret.put("state", state);
+        pending.setKeepAlive(false);
+        pending.resolve(ret);
+    }
+
+    private void rejectMakeCall(@Nullable String clientCallId, String message) {
+        PluginCall pending = clientCallId != null ? pendingMakeCalls.remove(clientCallId) : null;
+        if (pending != null) {
+            pending.setKeepAlive(false);
+            pending.reject(message);
+        }
+    }
+
+    // Twilio did not assign the CallSid in time, the call goes on and its events carry the SID
+    private void resolveMakeCallWithoutSid(String clientCallId) {
+        PluginCall pending = pendingMakeCalls.remove(clientCallId);
+        if (pending == null) {
+            return;
+        }
+        outgoingClientCallIds.values().remove(clientCallId);
+        Log.w(TAG, "No CallSid after " + MAKE_CALL_SID_TIMEOUT_MS + "ms, resolving makeCall without it");
+
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        ret.put("callSid", "pending");
+        pending.setKeepAlive(false);
+        pending.resolve(ret);
+    }
+
     private boolean hasMicrophonePermission() {
         return ContextCompat.checkSelfPermission(getSafeContext(), Manifest.permission.RECORD_AUDIO) == PackageManager.PERMISSION_GRANTED;
     }
@@ -925,11 +1126,13 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             PluginCall call = pendingOutgoingCall;
             String to = pendingOutgoingTo != null ? pendingOutgoingTo : "";
             String callerId = pendingOutgoingCallerId;
+            String clientCallId = pendingOutgoingClientCallId;
             pendingOutgoingCall = null;
             pendingOutgoingTo = null;
             pendingOutgoingCallerId = null;
+            pendingOutgoingClientCallId = null;
             pendingPermissionAction = PendingPermissionAction.NONE;
-            startOutgoingCall(call, to, callerId);
+            startOutgoingCall(call, to, callerId, clientCallId);
             return;
         }
 
@@ -1163,7 +1366,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             if (pendingCallSidForPermission != null) {
                 CallInvite invite = activeCallInvites.get(pendingCallSidForPermission);
                 if (invite != null) {
-                    dismissIncomingCallNotification();
+                    dismissIncomingCallNotification(pendingCallSidForPermission);
                     activeCallInvites.remove(pendingCallSidForPermission);
                     try {
                         invite.reject(getSafeContext());
@@ -1204,6 +1407,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         pendingOutgoingCall = null;
         pendingOutgoingTo = null;
         pendingOutgoingCallerId = null;
+        pendingOutgoingClientCallId = null;
         if (pendingPermissionAction == PendingPermissionAction.OUTGOING_CALL) {
             pendingPermissionAction = PendingPermissionAction.NONE;
         }
@@ -1249,9 +1453,10 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
 
         // Dismiss notification and stop sounds
-        dismissIncomingCallNotification();
+        dismissIncomingCallNotification(callSid);
 
         callInvite.reject(getSafeContext());
+        recordUnansweredInvite(callSid, callInvite.getCallSid(), callInvite.getFrom(), CallHistoryStore.STATUS_REJECTED);
         activeCallInvites.remove(callSid);
 
         JSObject ret = new JSObject();
@@ -1262,9 +1467,25 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
     @PluginMethod
     public void endCall(PluginCall call) {
-        // End call via the foreground service
+        String callSid = call.getString("callSid");
+
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            try {
+                JSObject ret = new JSObject();
+                ret.put("success", runOnMainThread(() -> service.endCall(callSid)));
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "Error ending call", e);
+                call.reject("Failed to end call: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Not bound yet, end call via the foreground service
         Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
         serviceIntent.setAction(VoiceCallService.ACTION_END_CALL);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_SID, callSid);
 
         try {
             getSafeContext().startService(serviceIntent);
@@ -1281,11 +1502,31 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     @PluginMethod
     public void muteCall(PluginCall call) {
         boolean muted = call.getBoolean("muted", false);
+        String callSid = call.getString("callSid");
+
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            try {
+                Boolean actualMuted = runOnMainThread(() -> service.mute(callSid, muted));
 
-        // Mute call via the foreground service
+                JSObject ret = new JSObject();
+                ret.put("success", actualMuted != null);
+                if (actualMuted != null) {
+                    ret.put("muted", actualMuted);
+                }
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "Error muting call", e);
+                call.reject("Failed to mute call: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Not bound yet, mute call via the foreground service
         Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
         serviceIntent.setAction(VoiceCallService.ACTION_MUTE_CALL);
         serviceIntent.putExtra(VoiceCallService.EXTRA_MUTED, muted);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_SID, callSid);
 
         try {
             getSafeContext().startService(serviceIntent);
@@ -1303,7 +1544,23 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
     public void setSpeaker(PluginCall call) {
         boolean enabled = call.getBoolean("enabled", false);
 
-        // Set speaker via the foreground service
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            try {
+                boolean actualEnabled = runOnMainThread(() -> service.setSpeaker(enabled));
+
+                JSObject ret = new JSObject();
+                ret.put("success", actualEnabled == enabled);
+                ret.put("enabled", actualEnabled);
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "Error setting speaker", e);
+                call.reject("Failed to set speaker: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Not bound yet, set speaker via the foreground service
         Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
         serviceIntent.setAction(VoiceCallService.ACTION_SPEAKER_TOGGLE);
         serviceIntent.putExtra(VoiceCallService.EXTRA_SPEAKER_ENABLED, enabled);
@@ -1320,6 +1577,193 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void setCallQualityMonitoring(PluginCall call) {
+        long sampleIntervalMs = call.getInt("sampleIntervalMs", (int) qualitySampleIntervalMs);
+        long emitIntervalMs = call.getInt("emitIntervalMs", (int) qualityEmitIntervalMs);
+        qualitySampleIntervalMs = sampleIntervalMs;
+        qualityEmitIntervalMs = emitIntervalMs;
+
+        // Otherwise applied when the service binds
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            mainHandler.post(() -> service.configureQualityMonitoring(sampleIntervalMs, emitIntervalMs));
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void setEventCoalescing(PluginCall call) {
+        eventDispatcher.setCoalesceWindowMs(call.getInt("windowMs", (int) EventDispatcher.DEFAULT_COALESCE_WINDOW_MS));
+
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getEventStats(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("coalesceWindowMs", eventDispatcher.getCoalesceWindowMs());
+        ret.put("delivered", eventDispatcher.getDeliveredCount());
+        ret.put("coalesced", eventDispatcher.getCoalescedCount());
+        ret.put("dropped", eventDispatcher.getDroppedCount());
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getCallHistory(PluginCall call) {
+        long from = call.getLong("from", 0L);
+        long to = call.getLong("to", Long.MAX_VALUE);
+        int offset = Math.max(0, call.getInt("offset", 0));
+        int limit = Math.max(0, call.getInt("limit", CallHistoryStore.DEFAULT_PAGE_SIZE));
+
+        try {
+            CallHistoryStore.Page page = CallHistoryStore.get(getSafeContext()).query(from, to, offset, limit);
+
+            JSArray calls = new JSArray();
+            for (CallHistoryStore.Record record : page.records) {
+                calls.put(record.toJSObject());
+            }
+            JSObject ret = new JSObject();
+            ret.put("calls", calls);
+            ret.put("total", page.total);
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading call history", e);
+            call.reject("Failed to get call history: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getCallTimings(PluginCall call) {
+        JSArray timings = new JSArray();
+        for (CallSetupTracer.Timings callTimings : CallSetupTracer.getFinished(call.getString("callSid"))) {
+            timings.put(callTimings.toJSObject());
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("timings", timings);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void holdCall(PluginCall call) {
+        boolean onHold = call.getBoolean("onHold", true);
+        String callSid = call.getString("callSid");
+
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            try {
+                JSObject ret = new JSObject();
+                ret.put("success", runOnMainThread(() -> service.setOnHold(callSid, onHold)));
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "Error changing hold state", e);
+                call.reject("Failed to change hold state: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Not bound yet, hold or resume via the foreground service
+        Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
+        serviceIntent.setAction(VoiceCallService.ACTION_HOLD_CALL);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_SID, callSid);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_ON_HOLD, onHold);
+
+        try {
+            getSafeContext().startService(serviceIntent);
+
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "Error changing hold state via service", e);
+            call.reject("Failed to change hold state: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void swapCalls(PluginCall call) {
+        VoiceCallService service = voiceCallService;
+        if (service != null) {
+            try {
+                JSObject ret = new JSObject();
+                ret.put("success", runOnMainThread(service::swapCalls));
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "Error swapping calls", e);
+                call.reject("Failed to swap calls: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Not bound yet, swap the active and held call via the foreground service
+        Intent serviceIntent = new Intent(getSafeContext(), VoiceCallService.class);
+        serviceIntent.setAction(VoiceCallService.ACTION_SWAP_CALLS);
+
+        try {
+            getSafeContext().startService(serviceIntent);
+
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "Error swapping calls via service", e);
+            call.reject("Failed to swap calls: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a command against the bound service on the main thread, where the Twilio calls and their listeners live,
+     * and waits for its result. Plugin methods are called on the plugin thread, so this is a single post to the main
+     * looper instead of a round trip through startService and onStartCommand.
+     */
+    private <T> T runOnMainThread(Callable<T> command) throws Exception {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            return command.call();
+        }
+
+        FutureTask<T> task = new FutureTask<>(command);
+        mainHandler.post(task);
+        try {
+            return task.get(SERVICE_COMMAND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (TimeoutException e) {
+            // Don't let the command run after the promise was rejected
+            task.cancel(false);
+            throw new TimeoutException("Main thread did not run the command within " + SERVICE_COMMAND_TIMEOUT_MS + "ms");
+        }
+    }
+
+    /**
+     * Runs push handling on the main thread, which owns the invite, notification and ringtone state, and waits for
+     * it so the FCM service does not return before the invite is shown.
+     */
+    private void runOnMainThreadAndWait(Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            task.run();
+            return;
+        }
+
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        mainHandler.post(future);
+        try {
+            future.get(CallInvitePipeline.HANDOFF_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Error handling call invite push", e.getCause());
+        } catch (TimeoutException e) {
+            // Still runs once the main thread gets to it
+            Log.w(TAG, "Main thread did not handle the call invite push within " + CallInvitePipeline.HANDOFF_TIMEOUT_MS + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @PluginMethod
     public void getCallStatus(PluginCall call) {
         JSObject ret = new JSObject();
@@ -1336,7 +1780,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
         // Build array of pending invites with same structure as callInviteReceived
         JSArray pendingInvitesArray = new JSArray();
-        for (Map.Entry<String, CallInvite> entry : activeCallInvites.entrySet()) {
+        for (Map.Entry<String, CallInvite> entry : activeCallInvites.snapshot().entrySet()) {
             String callSid = entry.getKey();
             CallInvite callInvite = entry.getValue();
 
@@ -1359,7 +1803,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             pendingInvitesArray.put(inviteData);
         }
         ret.put("pendingInvites", pendingInvitesArray);
-        ret.put("activeCallsCount", activeCalls.size() + callsByUuid.size());
+        ret.put("activeCallsCount", activeCalls.size());
         call.resolve(ret);
     }
 
@@ -1670,18 +2114,34 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     };*/
 
-    private void showIncomingCallNotification(CallInvite callInvite, String callSid, String callerName) {
+    /**
+     * Returns whether the notification was posted.
+     */
+    private boolean showIncomingCallNotification(CallInvite callInvite, String callSid, String callerName) {
         try {
+            if (notificationFactory == null) {
+                notificationFactory = new CallNotificationFactory(getSafeContext());
+            }
+
+            if (!notificationFactory.canPostNotifications()) {
+                Log.e(TAG, "Cannot get POST_NOTIFICATION perm");
+                return false;
+            }
+
             Intent activityIntent = createMainActivityIntent();
             if (activityIntent == null) {
                 Log.e(TAG, "Error showing notification: unable to resolve activity intent");
-                return;
+                return false;
             }
 
+            // Each invite gets its own notification and request codes, so a second invite doesn't replace the first
+            int slot = inviteNotificationSlots.acquire(callSid);
+
             // Create intent for accepting the call
             PendingIntent acceptPendingIntent;
-            if (this.bridge == null) {
-                // App NOT running - launch new activity
+            if (this.bridge == null || !hasMicrophonePermission()) {
+                // App NOT running, or the permission has to be asked for first - launch the activity, which a receiver
+                // may not do from the background on Android 12+
                 Intent acceptIntent = new Intent(activityIntent);
                 acceptIntent.setAction(ACTION_ACCEPT_CALL);
                 acceptIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
@@ -1689,7 +2149,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
                 acceptIntent.putExtra(EXTRA_CALL_SID, callSid);
                 acceptPendingIntent = PendingIntent.getActivity(
                     getSafeContext(),
-                    0,
+                    inviteNotificationSlots.acceptRequestCode(slot),
                     acceptIntent,
                     PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
                 );
@@ -1700,7 +2160,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
                 acceptIntent.putExtra(EXTRA_CALL_SID, callSid);
                 acceptPendingIntent = PendingIntent.getBroadcast(
                     getSafeContext(),
-                    0,
+                    inviteNotificationSlots.acceptRequestCode(slot),
                     acceptIntent,
                     PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
                 );
@@ -1712,7 +2172,7 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             rejectIntent.putExtra(EXTRA_CALL_SID, callSid);
             PendingIntent rejectPendingIntent = PendingIntent.getBroadcast(
                 getSafeContext(),
-                1,
+                inviteNotificationSlots.rejectRequestCode(slot),
                 rejectIntent,
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
@@ -1726,84 +2186,96 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
             fullScreenIntent.putExtra("CALL_FROM", callInvite.getFrom());
             PendingIntent fullScreenPendingIntent = PendingIntent.getActivity(
                 getSafeContext(),
-                2,
+                inviteNotificationSlots.fullScreenRequestCode(slot),
                 fullScreenIntent,
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
 
-            // Create Person object for the caller
-            androidx.core.app.Person caller = new androidx.core.app.Person.Builder().setName(callerName).setImportant(true).build();
-
-            // Create CallStyle notification with proper colored buttons
-            NotificationCompat.CallStyle callStyle = NotificationCompat.CallStyle.forIncomingCall(
-                caller, // person (caller as Person object)
-                rejectPendingIntent, // decline intent
-                acceptPendingIntent // answer intent
-            )
-                .setAnswerButtonColorHint(0xFF4CAF50) // Green color for accept button
-                .setDeclineButtonColorHint(0xFFF44336); // Red color for reject button
-
-            // Build notification with CallStyle
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(getSafeContext(), NOTIFICATION_CHANNEL_ID)
-                .setSmallIcon(android.R.drawable.ic_menu_call)
-                .setContentTitle("Incoming Call")
-                .setContentText(callerName + " is calling")
-                .setPriority(NotificationCompat.PRIORITY_HIGH)
-                .setCategory(NotificationCompat.CATEGORY_CALL)
-                .setAutoCancel(false)
-                .setOngoing(true)
-                .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
-                .setFullScreenIntent(fullScreenPendingIntent, true)
-                .setContentIntent(fullScreenPendingIntent)
-                .setStyle(callStyle)
-                .setDefaults(NotificationCompat.DEFAULT_VIBRATE)
-                .setTimeoutAfter(30000); // Auto-dismiss after 30 seconds
-
-            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(getSafeContext());
-            if (
-                ActivityCompat.checkSelfPermission(getSafeContext(), Manifest.permission.POST_NOTIFICATIONS) !=
-                PackageManager.PERMISSION_GRANTED
-            ) {
-                Log.e(TAG, "Cannot get POST_NOTIFICATION perm");
-                return;
-            } else {
-                notificationManager.notify(INCOMING_CALL_NOTIFICATION_ID, builder.build());
-            }
+            Notification notification = notificationFactory.buildIncomingCall(
+                NOTIFICATION_CHANNEL_ID,
+                callerName,
+                fullScreenPendingIntent,
+                acceptPendingIntent,
+                rejectPendingIntent,
+                NotificationActionReceiver.deleteIntent(getSafeContext(), callSid, inviteNotificationSlots.deleteRequestCode(slot))
+            );
+            NotificationManagerCompat.from(getSafeContext()).notify(inviteNotificationSlots.notificationId(slot), notification);
+            notificationFactory.updateIncomingCallSummary();
 
-            Log.d(TAG, "Incoming call notification shown");
+            Log.d(TAG, "Incoming call notification shown for " + callSid + " (slot " + slot + ")");
+            return true;
         } catch (Exception e) {
             Log.e(TAG, "Error showing notification: " + e.getMessage(), e);
+            return false;
         }
     }
 
-    private void dismissIncomingCallNotification() {
+    /**
+     * Dismisses the notification of one invite, and stops ringing once no other invite is pending.
+     */
+    private void dismissIncomingCallNotification(@Nullable String callSid) {
         try {
-            NotificationManagerCompat notificationManager = NotificationManagerCompat.from(getSafeContext());
-            notificationManager.cancel(INCOMING_CALL_NOTIFICATION_ID);
-            stopRingtone();
-            Log.d(TAG, "Incoming call notification dismissed");
+            if (notificationFactory == null) {
+                notificationFactory = new CallNotificationFactory(getSafeContext());
+            }
+            if (notificationFactory.cancelIncomingCall(callSid) == 0) {
+                stopRingtone();
+            }
+            Log.d(TAG, "Incoming call notification dismissed for " + callSid);
         } catch (Exception e) {
             Log.e(TAG, "Error dismissing notification: " + e.getMessage(), e);
         }
     }
 
+    private void dismissAllIncomingCallNotifications() {
+        for (String callSid : inviteNotificationSlots.snapshot().keySet()) {
+            dismissIncomingCallNotification(callSid);
+        }
+        stopRingtone();
+    }
+
     // Handle incoming call invites (called from FirebaseMessagingService)
     public void handleCallInvite(CallInvite callInvite) {
+        handleCallInvite(callInvite, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * @param receivedAt {@link SystemClock#elapsedRealtime()} when the push arrived
+     */
+    public void handleCallInvite(CallInvite callInvite, long receivedAt) {
+        runOnMainThreadAndWait(() -> showCallInvite(callInvite, receivedAt));
+    }
+
+    private void showCallInvite(CallInvite callInvite, long receivedAt) {
         Log.d(TAG, "Received incoming call from: " + callInvite.getFrom());
 
-        String callSid = UUID.randomUUID().toString(); // Generate a unique ID
-        activeCallInvites.put(callSid, callInvite);
+        String callSid = activeCallInvites.add(callInvite); // Generate a unique ID
+        mainHandler.postDelayed(inviteExpiryCheck, activeCallInvites.getInviteTtlMs());
 
         Map<String, String> params = callInvite.getCustomParameters();
         String callerName = params.containsKey("CapacitorTwilioCallerName")
             ? params.get("CapacitorTwilioCallerName")
             : callInvite.getFrom();
 
+        // Start ringtone and vibration first, the prepared player starts before the notification is built
+        startRingtone(callInvite.getCallSid());
+
         // Create and show notification
-        showIncomingCallNotification(callInvite, callSid, callerName);
+        if (showIncomingCallNotification(callInvite, callSid, callerName)) {
+            // Push received to notification shown is reported by getCallTimings, from the pushReceived stage
+            long shownAt = SystemClock.elapsedRealtime();
+            CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_NOTIFICATION_SHOWN, shownAt);
+            Log.d(TAG, "Push received to notification shown: " + (shownAt - receivedAt) + "ms");
+        }
 
-        // Start ringtone and vibration
-        startRingtone();
+        notifyCallInviteReceived(callSid, callInvite);
+    }
+
+    private void notifyCallInviteReceived(String callSid, CallInvite callInvite) {
+        Map<String, String> params = callInvite.getCustomParameters();
+        String callerName = params.containsKey("CapacitorTwilioCallerName")
+            ? params.get("CapacitorTwilioCallerName")
+            : callInvite.getFrom();
 
         // Strip "client:" prefix from caller name for consistency
         String fromValue = callerName;
@@ -1821,30 +2293,76 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
 
     // Handle cancelled call invites
     public void handleCancelledCallInvite(CancelledCallInvite cancelledCallInvite) {
-        Log.d(TAG, "Call invite cancelled");
+        runOnMainThreadAndWait(() -> cancelCallInvite(cancelledCallInvite));
+    }
 
-        // Dismiss notification and stop sounds
-        dismissIncomingCallNotification();
+    private void cancelCallInvite(CancelledCallInvite cancelledCallInvite) {
+        Log.d(TAG, "Call invite cancelled");
 
         // Find and remove the corresponding call invite
-        String cancelledCallSid = null;
-        for (Map.Entry<String, CallInvite> entry : activeCallInvites.entrySet()) {
-            CallInvite invite = entry.getValue();
-            if (invite.getCallSid().equals(cancelledCallInvite.getCallSid())) {
-                cancelledCallSid = entry.getKey();
-                break;
-            }
+        String pendingId = activeCallInvites.findIdByCallSid(cancelledCallInvite.getCallSid());
+        // Only invites still pending here are missed; otherwise the headless path or the accept already recorded it
+        if (pendingId != null) {
+            recordUnansweredInvite(
+                pendingId,
+                cancelledCallInvite.getCallSid(),
+                cancelledCallInvite.getFrom(),
+                CallHistoryStore.STATUS_MISSED
+            );
+        } else {
+            Log.d(TAG, "Cancelled call invite was not pending: " + cancelledCallInvite.getCallSid());
         }
+        String cancelledCallSid = activeCallInvites.removeByCallSid(cancelledCallInvite.getCallSid());
 
-        if (cancelledCallSid != null) {
-            activeCallInvites.remove(cancelledCallSid);
+        // Dismiss its notification, and stop sounds if no other invite is ringing
+        dismissIncomingCallNotification(cancelledCallSid);
 
+        if (cancelledCallSid != null) {
             JSObject data = new JSObject();
             data.put("callSid", cancelledCallSid);
+            data.put("reason", "remote_cancelled");
             notifyListeners("callInviteCancelled", data);
         }
     }
 
+    /**
+     * An invite outlived its time to live without being answered or cancelled, e.g. the cancel push was lost.
+     */
+    private void handleExpiredCallInvite(String id, CallInvite callInvite, long receivedAt) {
+        Log.d(TAG, "Call invite expired: " + id);
+        recordUnansweredInvite(receivedAt, callInvite.getCallSid(), callInvite.getFrom(), CallHistoryStore.STATUS_MISSED);
+
+        // Dismiss its notification, and stop sounds if no other invite is ringing
+        dismissIncomingCallNotification(id);
+
+        JSObject data = new JSObject();
+        data.put("callSid", id);
+        data.put("reason", "expired");
+        notifyListeners("callInviteCancelled", data);
+    }
+
+    private void recordUnansweredInvite(@Nullable String id, String twilioCallSid, String from, int status) {
+        recordUnansweredInvite(activeCallInvites.getReceivedAt(id), twilioCallSid, from, status);
+    }
+
+    /**
+     * @param receivedAt wall clock time the invite was received, 0 if unknown
+     */
+    private void recordUnansweredInvite(long receivedAt, String twilioCallSid, String from, int status) {
+        long now = System.currentTimeMillis();
+
+        CallHistoryStore.Record record = new CallHistoryStore.Record(
+            twilioCallSid,
+            CallHistoryStore.DIRECTION_INCOMING,
+            from,
+            receivedAt > 0 ? receivedAt : now
+        );
+        record.endedAt = now;
+        record.status = status;
+        CallHistoryStore.get(getSafeContext()).record(record);
+        CallSetupTracer.discard(twilioCallSid);
+    }
+
     // Methods called by NotificationActionReceiver
     public void acceptCallFromNotification(String callSid) {
         Log.d(TAG, "Accepting call from notification: " + callSid);
@@ -1857,15 +2375,25 @@ public class CapacitorTwilioVoicePlugin extends Plugin {
         }
     }
 
+    /**
+     * The notification of the invite timed out or was dismissed. The invite stays pending, but its slot is freed and
+     * ringing stops once no other invite is shown.
+     */
+    public void incomingCallNotificationDeleted(String callSid) {
+        Log.d(TAG, "Incoming call notification removed: " + callSid);
+        dismissIncomingCallNotification(callSid);
+    }
+
     public void rejectCallFromNotification(String callSid) {
         Log.d(TAG, "Rejecting call from notification: " + callSid);
 
         CallInvite callInvite = activeCallInvites.get(callSid);
         if (callInvite != null) {
             // Dismiss notification and stop sounds
-            dismissIncomingCallNotification();
+            dismissIncomingCallNotification(callSid);
 
             callInvite.reject(getSafeContext());
+            recordUnansweredInvite(callSid, callInvite.getCallSid(), callInvite.getFrom(), CallHistoryStore.STATUS_REJECTED);
             activeCallInvites.remove(callSid);
 
             // Notify JavaScript that the call was rejected from notification
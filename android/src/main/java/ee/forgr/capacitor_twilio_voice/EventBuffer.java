@@ -0,0 +1,80 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Plugin events emitted before JavaScript registered any listener, e.g. while the WebView boots after a call
+ * notification started the app. Each event is delivered, in the order it was emitted, as soon as a listener for
+ * its name is added. Once JavaScript listens, new events are no longer buffered.
+ */
+public class EventBuffer {
+
+    private static final String TAG = "EventBuffer";
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    private static final class Event {
+
+        final String name;
+        final JSObject data;
+
+        Event(String name, JSObject data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final int capacity;
+    private final ArrayDeque<Event> events = new ArrayDeque<>();
+    private boolean listening = false;
+
+    public EventBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Buffers the event if JavaScript has not registered any listener yet. Returns whether it was buffered.
+     */
+    public synchronized boolean offer(String eventName, JSObject data) {
+        if (listening) {
+            return false;
+        }
+        if (events.size() >= capacity) {
+            Event dropped = events.removeFirst();
+            Log.w(TAG, "Event buffer full, dropping " + dropped.name);
+        }
+        events.addLast(new Event(eventName, data));
+        return true;
+    }
+
+    /**
+     * Marks JavaScript as listening and takes the buffered events with the given name, oldest first.
+     */
+    public synchronized List<JSObject> onListenerAdded(String eventName) {
+        listening = true;
+
+        List<JSObject> result = new ArrayList<>();
+        Iterator<Event> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            Event event = iterator.next();
+            if (event.name.equals(eventName)) {
+                result.add(event.data);
+                iterator.remove();
+            }
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,174 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import com.getcapacitor.JSObject;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers plugin events to JavaScript from a dedicated thread, so serializing them for the WebView does not
+ * run on the main thread or the Twilio callbacks.
+ * Events that describe the latest state of a call, like quality warnings, are coalesced: within the window only
+ * the last event per call and type is delivered. Any other event of the same call first flushes what is pending
+ * for it, so JavaScript always sees a call's events in order. When too many deliveries are queued, coalescible
+ * events are dropped rather than delayed further; other events are never dropped.
+ */
+public class EventDispatcher {
+
+    private static final String TAG = "EventDispatcher";
+
+    static final long DEFAULT_COALESCE_WINDOW_MS = 500;
+    static final int MAX_QUEUED_EVENTS = 256;
+
+    // Events carrying the full current state, where only the latest one matters
+    private static final Set<String> COALESCIBLE_EVENTS = new HashSet<>(
+        Arrays.asList("callQualityWarningsChanged", "callQualitySample")
+    );
+
+    public interface Sink {
+        void deliver(String eventName, JSObject data);
+    }
+
+    private static final class PendingEvent {
+
+        final String eventName;
+        final String callSid;
+        JSObject data;
+
+        PendingEvent(String eventName, String callSid, JSObject data) {
+            this.eventName = eventName;
+            this.callSid = callSid;
+            this.data = data;
+        }
+    }
+
+    private final Sink sink;
+    private final HandlerThread thread;
+    private final Handler handler;
+    // Guarded by this, keyed by call and event name, in the order they were first emitted
+    private final Map<String, PendingEvent> pending = new LinkedHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long coalesceWindowMs = DEFAULT_COALESCE_WINDOW_MS;
+
+    private final Runnable flushPending = this::flushAll;
+
+    public EventDispatcher(Sink sink) {
+        this.sink = sink;
+        thread = new HandlerThread("EventDispatcher");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * @param coalesceWindowMs how long coalescible events are held back, 0 delivers every event
+     */
+    public void setCoalesceWindowMs(long coalesceWindowMs) {
+        this.coalesceWindowMs = Math.max(0, coalesceWindowMs);
+    }
+
+    public long getCoalesceWindowMs() {
+        return coalesceWindowMs;
+    }
+
+    public void dispatch(String eventName, JSObject data) {
+        String callSid = data.getString("callSid");
+        boolean coalescible = COALESCIBLE_EVENTS.contains(eventName) && callSid != null;
+
+        if (coalescible && coalesceWindowMs > 0) {
+            String key = callSid + "/" + eventName;
+            synchronized (this) {
+                PendingEvent event = pending.get(key);
+                if (event != null) {
+                    event.data = data;
+                    coalesced.incrementAndGet();
+                    return;
+                }
+                if (queued.get() >= MAX_QUEUED_EVENTS) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                pending.put(key, new PendingEvent(eventName, callSid, data));
+                if (pending.size() == 1) {
+                    handler.postDelayed(flushPending, coalesceWindowMs);
+                }
+            }
+            return;
+        }
+
+        if (coalescible && queued.get() >= MAX_QUEUED_EVENTS) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        synchronized (this) {
+            // What is still held back for this call happened first
+            if (callSid != null) {
+                Iterator<PendingEvent> iterator = pending.values().iterator();
+                while (iterator.hasNext()) {
+                    PendingEvent event = iterator.next();
+                    if (event.callSid.equals(callSid)) {
+                        iterator.remove();
+                        post(event.eventName, event.data);
+                    }
+                }
+            }
+            post(eventName, data);
+        }
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Discards the held back events and stops the delivery thread once the queued events are delivered.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            pending.clear();
+        }
+        handler.removeCallbacks(flushPending);
+        thread.quitSafely();
+    }
+
+    private void flushAll() {
+        synchronized (this) {
+            for (PendingEvent event : pending.values()) {
+                post(event.eventName, event.data);
+            }
+            pending.clear();
+        }
+    }
+
+    private void post(String eventName, JSObject data) {
+        queued.incrementAndGet();
+        handler.post(() -> {
+            queued.decrementAndGet();
+            try {
+                sink.deliver(eventName, data);
+                delivered.incrementAndGet();
+            } catch (Exception e) {
+                Log.e(TAG, "Error delivering " + eventName, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,328 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.os.Parcel;
+import android.util.Base64;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+import com.twilio.voice.CallInvite;
+import com.twilio.voice.CancelledCallInvite;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Handles call invites that arrive while the plugin is not loaded, typically on a cold start from a push.
+ * The invite parcel is persisted so it survives until the app opens, the CallStyle notification is shown right
+ * away, and accepting or rejecting from the notification goes straight to {@link VoiceCallService} and Twilio
+ * without waiting for the WebView. Invites still pending when the plugin loads are handed over to it with
+ * {@link #drain(Context)}, under the same id, so notification intents created here keep working.
+ */
+public final class HeadlessCallInvites {
+
+    private static final String TAG = "HeadlessCallInvites";
+    private static final String PREFS_NAME = "CapacitorTwilioVoiceHeadlessInvites";
+    private static final String CALL_SID_PREFIX = "callSid:";
+
+    // Shared with the plugin and NotificationActionReceiver
+    private static final String ACTION_ACCEPT_CALL = "ACTION_ACCEPT_CALL";
+    private static final String ACTION_REJECT_CALL = "ACTION_REJECT_CALL";
+    private static final String EXTRA_CALL_SID = "EXTRA_CALL_SID";
+    private static final String PLUGIN_PREFS_NAME = "CapacitorTwilioVoice";
+    private static final String PREF_ACCESS_TOKEN = "twilio_access_token";
+
+    private static RingtonePlayer ringtonePlayer;
+
+    private HeadlessCallInvites() {}
+
+    /**
+     * Stores the invite, shows its notification and starts ringing.
+     */
+    public static synchronized void handleInvite(Context context, CallInvite callInvite) {
+        String id = UUID.randomUUID().toString();
+        String encoded = encode(callInvite);
+        if (encoded == null) {
+            return;
+        }
+
+        SharedPreferences.Editor editor = prefs(context).edit().putString(id, System.currentTimeMillis() + ":" + encoded);
+        if (callInvite.getCallSid() != null) {
+            editor.putString(CALL_SID_PREFIX + callInvite.getCallSid(), id);
+        }
+        editor.apply();
+
+        if (ringtonePlayer == null) {
+            ringtonePlayer = new RingtonePlayer(context);
+        }
+        ringtonePlayer.start(callInvite.getCallSid());
+
+        showNotification(context, id, callInvite);
+        CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_NOTIFICATION_SHOWN);
+        Log.d(TAG, "Stored headless call invite " + id + " from " + callInvite.getFrom());
+    }
+
+    public static synchronized void handleCancelledInvite(Context context, CancelledCallInvite cancelledCallInvite) {
+        String id = prefs(context).getString(CALL_SID_PREFIX + cancelledCallInvite.getCallSid(), null);
+        if (id == null) {
+            Log.d(TAG, "Cancelled call invite was not stored: " + cancelledCallInvite.getCallSid());
+            return;
+        }
+        recordUnanswered(context, id, cancelledCallInvite.getCallSid(), cancelledCallInvite.getFrom(), CallHistoryStore.STATUS_MISSED);
+        remove(context, id, cancelledCallInvite.getCallSid());
+        Log.d(TAG, "Headless call invite cancelled: " + id);
+    }
+
+    /**
+     * Accepts the invite through {@link VoiceCallService}. Returns false if the microphone permission is missing,
+     * in which case the invite is kept for the app to ask for it and accept.
+     */
+    public static synchronized boolean accept(Context context, String id) {
+        CallInvite callInvite = get(context, id);
+        if (callInvite == null) {
+            Log.w(TAG, "Headless call invite not found: " + id);
+            return true;
+        }
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.RECORD_AUDIO) != PackageManager.PERMISSION_GRANTED) {
+            Log.d(TAG, "Microphone permission missing, leaving invite " + id + " to the app");
+            return false;
+        }
+
+        CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_ACCEPT_REQUESTED);
+        Intent serviceIntent = new Intent(context, VoiceCallService.class);
+        serviceIntent.setAction(VoiceCallService.ACTION_ACCEPT_CALL);
+        serviceIntent.putExtra(VoiceCallService.EXTRA_CALL_INVITE, callInvite);
+        serviceIntent.putExtra(
+            VoiceCallService.EXTRA_ACCESS_TOKEN,
+            context.getSharedPreferences(PLUGIN_PREFS_NAME, Context.MODE_PRIVATE).getString(PREF_ACCESS_TOKEN, null)
+        );
+        ContextCompat.startForegroundService(context, serviceIntent);
+
+        // Other invites may still be pending, but nothing should ring over the answered call
+        if (ringtonePlayer != null) {
+            ringtonePlayer.stop();
+        }
+        remove(context, id, callInvite.getCallSid());
+        Log.d(TAG, "Headless call invite accepted: " + id);
+        return true;
+    }
+
+    public static synchronized void reject(Context context, String id) {
+        CallInvite callInvite = get(context, id);
+        if (callInvite == null) {
+            Log.w(TAG, "Headless call invite not found: " + id);
+            return;
+        }
+
+        callInvite.reject(context);
+        recordUnanswered(context, id, callInvite.getCallSid(), callInvite.getFrom(), CallHistoryStore.STATUS_REJECTED);
+        remove(context, id, callInvite.getCallSid());
+        Log.d(TAG, "Headless call invite rejected: " + id);
+    }
+
+    /**
+     * The notification of the invite timed out or was dismissed: frees its slot and stops ringing once no other
+     * invite is shown. The invite itself stays pending until it is cancelled or expires.
+     */
+    public static synchronized void notificationDeleted(Context context, String id) {
+        if (new CallNotificationFactory(context).cancelIncomingCall(id) == 0 && ringtonePlayer != null) {
+            ringtonePlayer.stop();
+        }
+        Log.d(TAG, "Headless call invite notification removed: " + id);
+    }
+
+    /**
+     * Returns the pending invites by id and clears the store, leaving their notifications to the caller.
+     */
+    public static synchronized Map<String, CallInvite> drain(Context context) {
+        Map<String, CallInvite> invites = new HashMap<>();
+        SharedPreferences prefs = prefs(context);
+        for (String id : prefs.getAll().keySet()) {
+            if (!id.startsWith(CALL_SID_PREFIX)) {
+                CallInvite callInvite = get(context, id);
+                if (callInvite != null) {
+                    invites.put(id, callInvite);
+                }
+            }
+        }
+        prefs.edit().clear().apply();
+
+        if (ringtonePlayer != null) {
+            ringtonePlayer.release();
+            ringtonePlayer = null;
+        }
+        return invites;
+    }
+
+    @Nullable
+    private static CallInvite get(Context context, @Nullable String id) {
+        if (id == null) {
+            return null;
+        }
+        String stored = prefs(context).getString(id, null);
+        if (stored == null) {
+            return null;
+        }
+
+        int separator = stored.indexOf(':');
+        long storedAt = Long.parseLong(stored.substring(0, separator));
+        if (System.currentTimeMillis() - storedAt > CallInviteRegistry.DEFAULT_INVITE_TTL_MS) {
+            Log.d(TAG, "Dropping stale headless call invite: " + id);
+            remove(context, id, null);
+            return null;
+        }
+        return decode(stored.substring(separator + 1));
+    }
+
+    private static void remove(Context context, String id, @Nullable String callSid) {
+        SharedPreferences.Editor editor = prefs(context).edit().remove(id);
+        if (callSid != null) {
+            editor.remove(CALL_SID_PREFIX + callSid);
+        }
+        editor.apply();
+
+        if (new CallNotificationFactory(context).cancelIncomingCall(id) == 0 && ringtonePlayer != null) {
+            ringtonePlayer.stop();
+        }
+    }
+
+    private static void recordUnanswered(Context context, String id, String callSid, String from, int status) {
+        long now = System.currentTimeMillis();
+        String stored = prefs(context).getString(id, null);
+        long receivedAt = stored != null ? Long.parseLong(stored.substring(0, stored.indexOf(':'))) : now;
+
+        CallHistoryStore.Record record = new CallHistoryStore.Record(callSid, CallHistoryStore.DIRECTION_INCOMING, from, receivedAt);
+        record.endedAt = now;
+        record.status = status;
+        CallHistoryStore.get(context).record(record);
+        CallSetupTracer.discard(callSid);
+    }
+
+    private static void showNotification(Context context, String id, CallInvite callInvite) {
+        CallNotificationFactory notificationFactory = new CallNotificationFactory(context);
+        notificationFactory.createIncomingCallChannel();
+        if (!notificationFactory.canPostNotifications()) {
+            Log.e(TAG, "Cannot get POST_NOTIFICATION perm");
+            return;
+        }
+
+        Class<?> activityClass = CallNotificationFactory.getMainActivityClass(context);
+        if (activityClass == null) {
+            Log.e(TAG, "Error showing notification: unable to resolve activity class");
+            return;
+        }
+
+        Map<String, String> params = callInvite.getCustomParameters();
+        String callerName = params.containsKey("CapacitorTwilioCallerName")
+            ? params.get("CapacitorTwilioCallerName")
+            : callInvite.getFrom();
+
+        InviteNotificationSlots slots = InviteNotificationSlots.incomingCalls();
+        int slot = slots.acquire(id);
+
+        // Accept and reject are handled by NotificationActionReceiver, without starting the app
+        PendingIntent acceptPendingIntent;
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.RECORD_AUDIO) == PackageManager.PERMISSION_GRANTED) {
+            Intent acceptIntent = new Intent(context, NotificationActionReceiver.class);
+            acceptIntent.setAction(ACTION_ACCEPT_CALL);
+            acceptIntent.putExtra(EXTRA_CALL_SID, id);
+            acceptPendingIntent = PendingIntent.getBroadcast(
+                context,
+                slots.acceptRequestCode(slot),
+                acceptIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            );
+        } else {
+            // The app has to ask for the microphone permission first, and a receiver may not start it from the
+            // background on Android 12+, so Accept opens the app directly
+            Intent acceptIntent = new Intent(context, activityClass);
+            acceptIntent.setAction(ACTION_ACCEPT_CALL);
+            acceptIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+            acceptIntent.putExtra("AUTO_ACCEPT_CALL", true);
+            acceptIntent.putExtra(EXTRA_CALL_SID, id);
+            acceptPendingIntent = PendingIntent.getActivity(
+                context,
+                slots.acceptRequestCode(slot),
+                acceptIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            );
+        }
+
+        Intent rejectIntent = new Intent(context, NotificationActionReceiver.class);
+        rejectIntent.setAction(ACTION_REJECT_CALL);
+        rejectIntent.putExtra(EXTRA_CALL_SID, id);
+        PendingIntent rejectPendingIntent = PendingIntent.getBroadcast(
+            context,
+            slots.rejectRequestCode(slot),
+            rejectIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        // Opening the notification starts the app, which picks the invite up from drain()
+        Intent fullScreenIntent = new Intent(context, activityClass);
+        fullScreenIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        fullScreenIntent.putExtra("INCOMING_CALL", true);
+        fullScreenIntent.putExtra(EXTRA_CALL_SID, id);
+        fullScreenIntent.putExtra("CALLER_NAME", callerName);
+        fullScreenIntent.putExtra("CALL_FROM", callInvite.getFrom());
+        PendingIntent fullScreenPendingIntent = PendingIntent.getActivity(
+            context,
+            slots.fullScreenRequestCode(slot),
+            fullScreenIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Notification notification = notificationFactory.buildIncomingCall(
+            CallNotificationFactory.INCOMING_CALL_CHANNEL_ID,
+            callerName,
+            fullScreenPendingIntent,
+            acceptPendingIntent,
+            rejectPendingIntent,
+            NotificationActionReceiver.deleteIntent(context, id, slots.deleteRequestCode(slot))
+        );
+        NotificationManagerCompat.from(context).notify(slots.notificationId(slot), notification);
+        notificationFactory.updateIncomingCallSummary();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Parcels are only read back by the same installation, within the invite's time to live
+    @Nullable
+    private static String encode(CallInvite callInvite) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(callInvite, 0);
+            return Base64.encodeToString(parcel.marshall(), Base64.NO_WRAP);
+        } catch (Exception e) {
+            Log.e(TAG, "Error encoding call invite", e);
+            return null;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Nullable
+    private static CallInvite decode(String encoded) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            byte[] bytes = Base64.decode(encoded, Base64.NO_WRAP);
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            return parcel.readParcelable(CallInvite.class.getClassLoader());
+        } catch (Exception e) {
+            Log.e(TAG, "Error decoding call invite", e);
+            return null;
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Gives each pending call invite its own notification id and PendingIntent request codes, so concurrent invites
+ * are shown side by side and their actions keep pointing at the right invite.
+ * Slots are reused lowest first once their invite is answered, rejected or cancelled, or its notification times
+ * out or is dismissed, which keeps the ids stable and bounded by the number of invites ringing at the same time.
+ */
+public class InviteNotificationSlots {
+
+    // accept, reject, full screen and delete
+    private static final int REQUEST_CODES_PER_SLOT = 4;
+
+    // First notification id of the incoming call invites
+    static final int INCOMING_CALL_NOTIFICATION_ID = 1001;
+
+    private static final InviteNotificationSlots incomingCalls = new InviteNotificationSlots(INCOMING_CALL_NOTIFICATION_ID);
+
+    private final int baseNotificationId;
+    private final Map<String, Integer> slotsByInviteId = new HashMap<>();
+    private final TreeSet<Integer> freeSlots = new TreeSet<>();
+    private int nextSlot = 0;
+
+    public InviteNotificationSlots(int baseNotificationId) {
+        this.baseNotificationId = baseNotificationId;
+    }
+
+    /**
+     * Slots of the incoming call notifications, shared by the plugin and the headless invite handling.
+     */
+    public static InviteNotificationSlots incomingCalls() {
+        return incomingCalls;
+    }
+
+    /**
+     * Returns the slot of the invite, allocating the lowest free one the first time.
+     */
+    public synchronized int acquire(String inviteId) {
+        Integer slot = slotsByInviteId.get(inviteId);
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pollFirst();
+            slotsByInviteId.put(inviteId, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Frees the slot of the invite and returns it, or null if the invite had none.
+     */
+    @Nullable
+    public synchronized Integer release(@Nullable String inviteId) {
+        if (inviteId == null) {
+            return null;
+        }
+        Integer slot = slotsByInviteId.remove(inviteId);
+        if (slot != null) {
+            freeSlots.add(slot);
+        }
+        return slot;
+    }
+
+    public synchronized Map<String, Integer> snapshot() {
+        return new HashMap<>(slotsByInviteId);
+    }
+
+    public synchronized int size() {
+        return slotsByInviteId.size();
+    }
+
+    public int notificationId(int slot) {
+        return baseNotificationId + slot;
+    }
+
+    public int acceptRequestCode(int slot) {
+        return slot * REQUEST_CODES_PER_SLOT;
+    }
+
+    public int rejectRequestCode(int slot) {
+        return slot * REQUEST_CODES_PER_SLOT + 1;
+    }
+
+    public int fullScreenRequestCode(int slot) {
+        return slot * REQUEST_CODES_PER_SLOT + 2;
+    }
+
+    public int deleteRequestCode(int slot) {
+        return slot * REQUEST_CODES_PER_SLOT + 3;
+    }
+}
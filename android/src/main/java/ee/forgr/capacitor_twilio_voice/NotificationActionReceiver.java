@@ -1,5 +1,6 @@
 package ee.forgr.capacitor_twilio_voice;
 
+import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
@@ -10,6 +11,7 @@ public class NotificationActionReceiver extends BroadcastReceiver {
     private static final String TAG = "NotificationAction";
     private static final String ACTION_ACCEPT_CALL = "ACTION_ACCEPT_CALL";
     private static final String ACTION_REJECT_CALL = "ACTION_REJECT_CALL";
+    static final String ACTION_INVITE_NOTIFICATION_DELETED = "ACTION_INVITE_NOTIFICATION_DELETED";
     private static final String EXTRA_CALL_SID = "EXTRA_CALL_SID";
 
     @Override
@@ -23,21 +25,41 @@ public class NotificationActionReceiver extends BroadcastReceiver {
 
         if (ACTION_ACCEPT_CALL.equals(action)) {
             if (plugin == null) {
-                Log.d(TAG, "App not running, cannot accept call directly");
+                Log.d(TAG, "App not running, accepting call directly");
+                if (!HeadlessCallInvites.accept(context, callSid)) {
+                    // The permission was revoked after the notification was shown, otherwise Accept would have opened
+                    // the app itself. Best effort: Android 12+ blocks activity starts from a receiver in the background
+                    launchAppToAcceptCall(context, callSid);
+                }
                 return;
             }
             plugin.acceptCallFromNotification(callSid);
         } else if (ACTION_REJECT_CALL.equals(action)) {
             if (plugin == null) {
-                // App is not running, but we can still reject the call
-                // We'll need to handle this differently - maybe just dismiss notification
-                Log.d(TAG, "App not running, cannot reject call directly");
+                Log.d(TAG, "App not running, rejecting call directly");
+                HeadlessCallInvites.reject(context, callSid);
                 return;
             }
             plugin.rejectCallFromNotification(callSid);
+        } else if (ACTION_INVITE_NOTIFICATION_DELETED.equals(action)) {
+            if (plugin == null) {
+                HeadlessCallInvites.notificationDeleted(context, callSid);
+                return;
+            }
+            plugin.incomingCallNotificationDeleted(callSid);
         }
     }
 
+    /**
+     * Delete intent of an incoming call notification, sent when it times out or is dismissed.
+     */
+    static PendingIntent deleteIntent(Context context, String inviteId, int requestCode) {
+        Intent intent = new Intent(context, NotificationActionReceiver.class);
+        intent.setAction(ACTION_INVITE_NOTIFICATION_DELETED);
+        intent.putExtra(EXTRA_CALL_SID, inviteId);
+        return PendingIntent.getBroadcast(context, requestCode, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
     private void launchAppToAcceptCall(Context context, String callSid) {
         try {
             // Get the main activity class name from the application context
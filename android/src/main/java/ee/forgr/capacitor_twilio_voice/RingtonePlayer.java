@@ -0,0 +1,175 @@
+package ee.forgr.capacitor_twilio_voice;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.media.RingtoneManager;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.util.Log;
+import androidx.annotation.Nullable;
+
+/**
+ * Looping ringtone for incoming calls, prepared ahead of time and reused across invites.
+ * The player is prepared asynchronously when the plugin loads, so an invite only has to seek and start it.
+ * All player state lives on the main thread; the public methods can be called from any thread.
+ * The player is prepared again when the user picks another ringtone.
+ * The moment the ringtone actually plays is stamped as the {@link CallSetupTracer#STAGE_RINGTONE_STARTED} stage of
+ * the invite that started it.
+ */
+public class RingtonePlayer {
+
+    private static final String TAG = "RingtonePlayer";
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Proxied by the settings provider, so it plays whatever ringtone is set without storage permissions
+    private final Uri ringtoneUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_RINGTONE);
+    private final ContentObserver ringtoneObserver = new ContentObserver(mainHandler) {
+        @Override
+        public void onChange(boolean selfChange) {
+            Log.d(TAG, "Ringtone setting changed");
+            if (startRequested) {
+                // Keep ringing, prepare the new ringtone once stopped
+                stale = true;
+            } else if (player != null) {
+                releasePlayer();
+                prepareOnMain();
+            }
+        }
+    };
+
+    private MediaPlayer player;
+    private boolean observing = false;
+    private boolean stale = false;
+    private boolean prepared = false;
+    private boolean startRequested = false;
+    private long startRequestedAt;
+    @Nullable
+    private String startTraceId;
+
+    public RingtonePlayer(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Prepares the player in the background if it is not prepared yet.
+     */
+    public void prepare() {
+        mainHandler.post(this::prepareOnMain);
+    }
+
+    /**
+     * Starts ringing from the beginning, as soon as the player is prepared.
+     *
+     * @param traceId CallSid of the invite ringing, to stamp its call setup trace
+     */
+    public void start(@Nullable String traceId) {
+        long requestedAt = SystemClock.elapsedRealtime();
+        mainHandler.post(() -> {
+            startRequested = true;
+            startRequestedAt = requestedAt;
+            startTraceId = traceId;
+            if (prepared) {
+                startPrepared();
+            } else {
+                prepareOnMain();
+            }
+        });
+    }
+
+    /**
+     * Stops ringing and rewinds, keeping the player prepared for the next invite.
+     */
+    public void stop() {
+        mainHandler.post(() -> {
+            startRequested = false;
+            if (stale) {
+                stale = false;
+                releasePlayer();
+                prepareOnMain();
+            } else if (player != null && prepared && player.isPlaying()) {
+                player.pause();
+                player.seekTo(0);
+            }
+        });
+    }
+
+    public void release() {
+        mainHandler.post(() -> {
+            startRequested = false;
+            releasePlayer();
+            if (observing) {
+                context.getContentResolver().unregisterContentObserver(ringtoneObserver);
+                observing = false;
+            }
+        });
+    }
+
+    private void prepareOnMain() {
+        if (player != null) {
+            // Already prepared or preparing
+            return;
+        }
+
+        if (!observing) {
+            context.getContentResolver().registerContentObserver(Settings.System.getUriFor(Settings.System.RINGTONE), false, ringtoneObserver);
+            observing = true;
+        }
+
+        try {
+            player = new MediaPlayer();
+            player.setAudioAttributes(
+                new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_NOTIFICATION_RINGTONE)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build()
+            );
+            player.setLooping(true);
+            player.setOnPreparedListener((mp) -> {
+                prepared = true;
+                Log.d(TAG, "Ringtone prepared");
+                if (startRequested) {
+                    startPrepared();
+                }
+            });
+            player.setOnErrorListener((mp, what, extra) -> {
+                Log.e(TAG, "Ringtone player error: " + what + "/" + extra);
+                // Prepared again on the next start
+                releasePlayer();
+                return true;
+            });
+            player.setDataSource(context, ringtoneUri);
+            player.prepareAsync();
+        } catch (Exception e) {
+            Log.e(TAG, "Error preparing ringtone: " + e.getMessage(), e);
+            releasePlayer();
+        }
+    }
+
+    private void startPrepared() {
+        try {
+            player.seekTo(0);
+            player.start();
+
+            long startedAt = SystemClock.elapsedRealtime();
+            CallSetupTracer.stamp(startTraceId, CallSetupTracer.STAGE_RINGTONE_STARTED, startedAt);
+            startTraceId = null;
+            Log.d(TAG, "Ringtone started, time to first ring: " + (startedAt - startRequestedAt) + "ms");
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting ringtone: " + e.getMessage(), e);
+        }
+    }
+
+    private void releasePlayer() {
+        if (player != null) {
+            player.release();
+            player = null;
+        }
+        prepared = false;
+    }
+}
@@ -20,9 +20,12 @@ import com.twilio.voice.CallException;
 import com.twilio.voice.CallInvite;
 import com.twilio.voice.ConnectOptions;
 import com.twilio.voice.Voice;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class VoiceCallService extends Service {
 
@@ -36,6 +39,8 @@ public class VoiceCallService extends Service {
     public static final String ACTION_END_CALL = "END_CALL";
     public static final String ACTION_MUTE_CALL = "MUTE_CALL";
     public static final String ACTION_SPEAKER_TOGGLE = "SPEAKER_TOGGLE";
+    public static final String ACTION_HOLD_CALL = "HOLD_CALL";
+    public static final String ACTION_SWAP_CALLS = "SWAP_CALLS";
 
     // Intent extras
     public static final String EXTRA_CALL_TO = "CALL_TO";
@@ -45,14 +50,31 @@ public class VoiceCallService extends Service {
     public static final String EXTRA_CALL_SID = "CALL_SID";
     public static final String EXTRA_MUTED = "MUTED";
     public static final String EXTRA_SPEAKER_ENABLED = "SPEAKER_ENABLED";
-
+    public static final String EXTRA_ON_HOLD = "ON_HOLD";
+    public static final String EXTRA_CLIENT_CALL_ID = "CLIENT_CALL_ID";
+
+    // Every call in the order it was started, and the ones that have a SID indexed by it. Outgoing calls only
+    // get their SID once Twilio answers.
+    private final List<Call> orderedCalls = new ArrayList<>();
+    private final Map<String, Call> calls = new HashMap<>();
+    private final Set<Call> mutedCalls = new HashSet<>();
+    // The call the user is talking on; every other call is on hold
     private Call activeCall;
-    private CallInvite activeCallInvite;
     private AudioSwitch audioSwitch;
-    private boolean isCallMuted = false;
     private boolean isSpeakerEnabled = false;
-    private String currentCallSid;
     private VoiceCallServiceListener serviceListener;
+    private CallNotificationFactory notificationFactory;
+    private PendingIntent openAppPendingIntent;
+    private final Map<String, PendingIntent> servicePendingIntents = new HashMap<>();
+    private final CallQualityMonitor qualityMonitor = new CallQualityMonitor((call, sample) -> {
+        if (serviceListener != null) {
+            serviceListener.onCallQualitySample(call, sample);
+        }
+    });
+    // History records of the calls in progress, written when they end
+    private final Map<Call, CallHistoryStore.Record> historyRecords = new HashMap<>();
+    // CallSetupTracer ids of the calls still being set up
+    private final Map<Call, String> traceIds = new HashMap<>();
 
     public interface VoiceCallServiceListener {
         void onCallConnected(Call call);
@@ -66,6 +88,10 @@ public class VoiceCallService extends Service {
             java.util.Set<Call.CallQualityWarning> previousWarnings
         );
         void onCallInviteAccepted(CallInvite callInvite);
+        void onCallHoldChanged(Call call, boolean onHold);
+        void onCallQualitySample(Call call, CallQualityMonitor.Summary sample);
+        // Result of Voice.connect for the call requested with the client call id, null if it could not start
+        void onOutgoingCallStarted(String clientCallId, @Nullable Call call);
     }
 
     public class VoiceCallBinder extends Binder {
@@ -82,6 +108,7 @@ public class VoiceCallService extends Service {
         super.onCreate();
         Log.d(TAG, "VoiceCallService created");
 
+        notificationFactory = new CallNotificationFactory(this);
         createNotificationChannel();
         initializeAudioSwitch();
     }
@@ -101,7 +128,7 @@ public class VoiceCallService extends Service {
                     handleAcceptCall(intent);
                     break;
                 case ACTION_END_CALL:
-                    handleEndCall();
+                    handleEndCall(intent);
                     break;
                 case ACTION_MUTE_CALL:
                     handleMuteCall(intent);
@@ -109,6 +136,12 @@ public class VoiceCallService extends Service {
                 case ACTION_SPEAKER_TOGGLE:
                     handleSpeakerToggle(intent);
                     break;
+                case ACTION_HOLD_CALL:
+                    setOnHold(intent.getStringExtra(EXTRA_CALL_SID), intent.getBooleanExtra(EXTRA_ON_HOLD, true));
+                    break;
+                case ACTION_SWAP_CALLS:
+                    swapCalls();
+                    break;
                 default:
                     Log.w(TAG, "Unknown action: " + action);
                     break;
@@ -129,11 +162,18 @@ public class VoiceCallService extends Service {
     public void onDestroy() {
         Log.d(TAG, "VoiceCallService destroyed");
 
-        // Clean up active call
-        if (activeCall != null) {
-            activeCall.disconnect();
-            activeCall = null;
+        // Clean up all calls, their disconnect callbacks won't reach a destroyed service
+        for (Call call : getCalls()) {
+            recordHistory(call, null, qualityMonitor.stop(call));
+            call.disconnect();
         }
+        qualityMonitor.stopAll();
+        historyRecords.clear();
+        traceIds.clear();
+        calls.clear();
+        orderedCalls.clear();
+        mutedCalls.clear();
+        activeCall = null;
 
         // Clean up audio switch
         if (audioSwitch != null) {
@@ -200,9 +240,12 @@ public class VoiceCallService extends Service {
         String to = intent.getStringExtra(EXTRA_CALL_TO);
         String callerId = intent.getStringExtra(EXTRA_CALLER_ID);
         String accessToken = intent.getStringExtra(EXTRA_ACCESS_TOKEN);
+        String clientCallId = intent.getStringExtra(EXTRA_CLIENT_CALL_ID);
+        CallSetupTracer.stamp(clientCallId, CallSetupTracer.STAGE_SERVICE_STARTED);
 
         if (accessToken == null || accessToken.isEmpty()) {
             Log.e(TAG, "Cannot start call - no access token provided");
+            reportOutgoingCallStarted(clientCallId, null);
             stopSelf();
             return;
         }
@@ -224,10 +267,29 @@ public class VoiceCallService extends Service {
             builder.params(params);
         }
 
-        activeCall = Voice.connect(this, builder.build(), callListener);
-        if (activeCall != null) {
-            currentCallSid = activeCall.getSid();
-            Log.d(TAG, "Call initiated with SID: " + currentCallSid);
+        // Call waiting: the current call stays connected on hold while the new one is placed
+        holdActiveCall();
+
+        Call call = Voice.connect(this, builder.build(), callListener);
+        if (call != null) {
+            CallSetupTracer.stamp(clientCallId, CallSetupTracer.STAGE_CONNECT_STARTED);
+            if (clientCallId != null) {
+                traceIds.put(call, clientCallId);
+            }
+            activeCall = call;
+            trackCall(call);
+            historyRecords.put(
+                call,
+                new CallHistoryStore.Record(null, CallHistoryStore.DIRECTION_OUTGOING, to, System.currentTimeMillis())
+            );
+            Log.d(TAG, "Call initiated with SID: " + call.getSid() + " (" + getCalls().size() + " calls)");
+        }
+        reportOutgoingCallStarted(clientCallId, call);
+    }
+
+    private void reportOutgoingCallStarted(@Nullable String clientCallId, @Nullable Call call) {
+        if (clientCallId != null && serviceListener != null) {
+            serviceListener.onOutgoingCallStarted(clientCallId, call);
         }
     }
 
@@ -238,15 +300,32 @@ public class VoiceCallService extends Service {
 
         if (callInvite != null && accessToken != null) {
             Log.d(TAG, "Accepting incoming call from: " + callInvite.getFrom());
+            CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_SERVICE_ACCEPT);
 
             // Start foreground service
             startForeground(VOICE_NOTIFICATION_ID, createOngoingCallNotification("Accepting call...", false));
 
-            activeCallInvite = callInvite;
-            activeCall = callInvite.accept(this, callListener);
-            if (activeCall != null) {
-                currentCallSid = activeCall.getSid();
-                Log.d(TAG, "Call accepted with SID: " + currentCallSid);
+            // Call waiting: the current call stays connected on hold while the invite is answered
+            holdActiveCall();
+
+            Call call = callInvite.accept(this, callListener);
+            if (call != null) {
+                CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_ACCEPT_SENT);
+                if (callInvite.getCallSid() != null) {
+                    traceIds.put(call, callInvite.getCallSid());
+                }
+                activeCall = call;
+                trackCall(call);
+                historyRecords.put(
+                    call,
+                    new CallHistoryStore.Record(
+                        callInvite.getCallSid(),
+                        CallHistoryStore.DIRECTION_INCOMING,
+                        callInvite.getFrom(),
+                        System.currentTimeMillis()
+                    )
+                );
+                Log.d(TAG, "Call accepted with SID: " + call.getSid() + " (" + getCalls().size() + " calls)");
             }
 
             if (serviceListener != null) {
@@ -255,36 +334,199 @@ public class VoiceCallService extends Service {
         }
     }
 
-    private void handleEndCall() {
-        Log.d(TAG, "Ending call");
+    private void handleEndCall(Intent intent) {
+        endCall(intent.getStringExtra(EXTRA_CALL_SID));
+    }
 
-        if (activeCall != null) {
-            activeCall.disconnect();
+    private void handleMuteCall(Intent intent) {
+        mute(intent.getStringExtra(EXTRA_CALL_SID), intent.getBooleanExtra(EXTRA_MUTED, false));
+    }
+
+    /**
+     * Disconnects the call, or stops the service if there is no call left. A null SID refers to the active call.
+     * Returns false if the call was not found.
+     */
+    public boolean endCall(@Nullable String callSid) {
+        Log.d(TAG, "Ending call" + (callSid != null ? ": " + callSid : ""));
+
+        Call call = findCall(callSid);
+        if (call != null) {
+            call.disconnect();
             // The callListener.onDisconnected will handle cleanup
-        } else {
+            return true;
+        }
+        if (getCalls().isEmpty()) {
             // No active call, just stop the service
             stopForeground(true);
             stopSelf();
         }
+        return false;
     }
 
-    private void handleMuteCall(Intent intent) {
-        boolean muted = intent.getBooleanExtra(EXTRA_MUTED, false);
+    /**
+     * Mutes or unmutes the call and returns its mute state afterwards, or null if the call was not found.
+     * A null SID refers to the active call.
+     */
+    @Nullable
+    public Boolean mute(@Nullable String callSid, boolean muted) {
+        Call call = findCall(callSid);
+        if (call == null) {
+            Log.w(TAG, "Cannot change mute state, call not found: " + callSid);
+            return null;
+        }
 
-        if (activeCall != null) {
-            activeCall.mute(muted);
-            isCallMuted = muted;
+        call.mute(muted);
+        if (call.isMuted()) {
+            mutedCalls.add(call);
+        } else {
+            mutedCalls.remove(call);
+        }
+
+        // Update ongoing notification
+        updateOngoingCallNotification();
+
+        Log.d(TAG, "Call " + call.getSid() + (call.isMuted() ? " muted" : " unmuted"));
+        return call.isMuted();
+    }
+
+    /**
+     * Puts the call on hold, or resumes it. Resuming a call puts the current active call on hold first.
+     * A null SID refers to the active call.
+     */
+    public boolean setOnHold(@Nullable String callSid, boolean onHold) {
+        Call call = findCall(callSid);
+        if (call == null) {
+            Log.w(TAG, "Cannot change hold state, call not found: " + callSid);
+            return false;
+        }
+
+        if (onHold) {
+            applyHold(call, true);
+        } else {
+            if (activeCall != call) {
+                holdActiveCall();
+            }
+            applyHold(call, false);
+            activeCall = call;
+        }
+        updateOngoingCallNotification();
+        return true;
+    }
+
+    /**
+     * Puts the active call on hold and resumes the most recently started other call.
+     */
+    public boolean swapCalls() {
+        Call other = null;
+        for (Call call : orderedCalls) {
+            if (call != activeCall && call.getSid() != null) {
+                other = call;
+            }
+        }
+        if (other == null) {
+            Log.w(TAG, "Cannot swap calls, no other call");
+            return false;
+        }
+        return setOnHold(other.getSid(), false);
+    }
+
+    private void holdActiveCall() {
+        if (activeCall != null && activeCall.getState() == Call.State.CONNECTED && !activeCall.isOnHold()) {
+            applyHold(activeCall, true);
+        }
+    }
+
+    private void applyHold(Call call, boolean onHold) {
+        if (call.isOnHold() == onHold) {
+            return;
+        }
+        call.hold(onHold);
+        Log.d(TAG, "Call " + call.getSid() + (onHold ? " on hold" : " resumed"));
+
+        if (serviceListener != null) {
+            serviceListener.onCallHoldChanged(call, onHold);
+        }
+    }
+
+    @Nullable
+    private Call findCall(@Nullable String callSid) {
+        if (callSid == null) {
+            return activeCall;
+        }
+        return calls.get(callSid);
+    }
+
+    // Keeps the call in start order, and indexes it by SID once it has one
+    private void trackCall(Call call) {
+        if (!orderedCalls.contains(call)) {
+            orderedCalls.add(call);
+        }
+        String callSid = call.getSid();
+        if (callSid != null) {
+            calls.put(callSid, call);
+        }
+    }
+
+    private void untrackCall(Call call) {
+        orderedCalls.remove(call);
+        calls.values().remove(call);
+        mutedCalls.remove(call);
 
-            // Update ongoing notification
+        if (activeCall == call) {
+            // The most recently started remaining call takes over, it stays on hold until resumed
+            activeCall = null;
+            for (Call remaining : getCalls()) {
+                activeCall = remaining;
+            }
+        }
+    }
+
+    private void onCallEnded(Call call, @Nullable CallException error) {
+        CallSetupTracer.discard(traceIds.remove(call));
+        CallQualityMonitor.Summary qualitySummary = qualityMonitor.stop(call);
+        recordHistory(call, error, qualitySummary);
+        untrackCall(call);
+
+        if (!getCalls().isEmpty()) {
             updateOngoingCallNotification();
+            return;
+        }
+
+        isSpeakerEnabled = false;
+        deactivateAudioSwitch();
 
-            Log.d(TAG, "Call " + (muted ? "muted" : "unmuted"));
+        // Stop foreground service
+        stopForeground(true);
+        stopSelf();
+    }
+
+    private void recordHistory(Call call, @Nullable CallException error, @Nullable CallQualityMonitor.Summary qualitySummary) {
+        CallHistoryStore.Record record = historyRecords.remove(call);
+        if (record == null) {
+            return;
+        }
+
+        if (call.getSid() != null) {
+            record.callSid = call.getSid();
+        }
+        record.endedAt = System.currentTimeMillis();
+        if (error != null) {
+            record.errorCode = error.getErrorCode();
+            record.status = CallHistoryStore.STATUS_FAILED;
         }
+        record.quality = qualitySummary;
+        CallHistoryStore.get(this).record(record);
     }
 
     private void handleSpeakerToggle(Intent intent) {
-        boolean speakerEnabled = intent.getBooleanExtra(EXTRA_SPEAKER_ENABLED, false);
+        setSpeaker(intent.getBooleanExtra(EXTRA_SPEAKER_ENABLED, false));
+    }
 
+    /**
+     * Routes audio to the speakerphone, or back to the earpiece or a Bluetooth headset, and returns whether the
+     * speaker is enabled afterwards.
+     */
+    public boolean setSpeaker(boolean speakerEnabled) {
         if (audioSwitch != null) {
             activateAudioSwitch();
             List<AudioDevice> audioDevices = audioSwitch.getAvailableAudioDevices();
@@ -312,39 +554,24 @@ public class VoiceCallService extends Service {
                 audioSwitch.selectDevice(selectedDevice);
                 isSpeakerEnabled = speakerEnabled;
                 Log.d(TAG, "Audio device changed to: " + selectedDevice.getName());
+            } else {
+                Log.w(TAG, "No audio device available for speaker " + (speakerEnabled ? "on" : "off"));
             }
         }
+        return isSpeakerEnabled;
     }
 
     private Notification createOngoingCallNotification(String contentText, boolean showActions) {
-        // Create intent for opening the app
-        Intent openAppIntent = new Intent(this, getMainActivityClass());
-        openAppIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        PendingIntent openAppPendingIntent = PendingIntent.getActivity(
-            this,
-            0,
-            openAppIntent,
-            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, VOICE_CHANNEL_ID)
-            .setSmallIcon(getDrawableId("ic_notification_call"))
-            .setContentTitle("🔊 Ongoing Call")
-            .setContentText(contentText)
-            .setOngoing(true)
-            .setAutoCancel(false)
-            .setPriority(NotificationCompat.PRIORITY_HIGH)
-            .setCategory(NotificationCompat.CATEGORY_CALL)
-            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
-            .setColorized(true)
-            .setColor(0xFF2196F3) // Beautiful blue color
-            .setContentIntent(openAppPendingIntent);
+        List<NotificationCompat.Action> actions = new ArrayList<>();
 
         if (showActions && activeCall != null) {
+            boolean isCallMuted = mutedCalls.contains(activeCall);
+
             // Add mute/unmute action with beautiful styling
             Intent muteIntent = new Intent(this, VoiceCallService.class);
             muteIntent.setAction(ACTION_MUTE_CALL);
             muteIntent.putExtra(EXTRA_MUTED, !isCallMuted);
+            muteIntent.putExtra(EXTRA_CALL_SID, activeCall.getSid());
             PendingIntent mutePendingIntent = PendingIntent.getService(
                 this,
                 1,
@@ -354,44 +581,70 @@ public class VoiceCallService extends Service {
 
             // Beautiful mute/unmute action with icons
             String muteText = isCallMuted ? "🔊 Unmute" : "🔇 Mute";
-            builder.addAction(
-                android.R.drawable.ic_media_pause, // Use system microphone icon
-                muteText,
-                mutePendingIntent
+            actions.add(
+                new NotificationCompat.Action(
+                    android.R.drawable.ic_media_pause, // Use system microphone icon
+                    muteText,
+                    mutePendingIntent
+                )
             );
 
-            // Add beautiful end call action with red color hint
-            Intent endIntent = new Intent(this, VoiceCallService.class);
-            endIntent.setAction(ACTION_END_CALL);
-            PendingIntent endPendingIntent = PendingIntent.getService(
-                this,
-                2,
-                endIntent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            // Beautiful end call action with reject icon
+            actions.add(
+                new NotificationCompat.Action(
+                    CallNotificationFactory.getDrawableId(this, "ic_phone_reject"),
+                    "📞 End Call",
+                    getServicePendingIntent(ACTION_END_CALL, 2)
+                )
             );
 
-            // Beautiful end call action with reject icon
-            builder.addAction(getDrawableId("ic_phone_reject"), "📞 End Call", endPendingIntent);
+            if (calls.size() > 1) {
+                actions.add(
+                    new NotificationCompat.Action(android.R.drawable.ic_menu_rotate, "🔁 Swap", getServicePendingIntent(ACTION_SWAP_CALLS, 3))
+                );
+            }
         }
 
-        return builder.build();
+        return notificationFactory.buildOngoingCall(VOICE_CHANNEL_ID, contentText, getOpenAppPendingIntent(), actions);
     }
 
-    private int getDrawableId(String drawableName) {
-        try {
-            return getResources().getIdentifier(drawableName, "drawable", getPackageName());
-        } catch (Exception e) {
-            Log.w(TAG, "Could not find drawable: " + drawableName + ", using default");
-            return android.R.drawable.ic_menu_call;
+    private PendingIntent getOpenAppPendingIntent() {
+        if (openAppPendingIntent == null) {
+            // Create intent for opening the app
+            Intent openAppIntent = new Intent(this, CallNotificationFactory.getMainActivityClass(this));
+            openAppIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+            openAppPendingIntent = PendingIntent.getActivity(
+                this,
+                0,
+                openAppIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            );
         }
+        return openAppPendingIntent;
+    }
+
+    // Intents without extras are the same for every notification, so they are only created once
+    private PendingIntent getServicePendingIntent(String action, int requestCode) {
+        PendingIntent pendingIntent = servicePendingIntents.get(action);
+        if (pendingIntent == null) {
+            Intent intent = new Intent(this, VoiceCallService.class);
+            intent.setAction(action);
+            pendingIntent = PendingIntent.getService(this, requestCode, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            servicePendingIntents.put(action, pendingIntent);
+        }
+        return pendingIntent;
     }
 
     private void updateOngoingCallNotification() {
         if (activeCall != null) {
-            String statusText = "Connected";
-            if (isCallMuted) {
+            String statusText = activeCall.isOnHold() ? "On hold" : "Connected";
+            if (mutedCalls.contains(activeCall)) {
                 statusText += " (Muted)";
             }
+            int heldCalls = getCalls().size() - 1;
+            if (heldCalls > 0) {
+                statusText += " · " + heldCalls + " on hold";
+            }
 
             Notification notification = createOngoingCallNotification(statusText, true);
 
@@ -402,36 +655,23 @@ public class VoiceCallService extends Service {
         }
     }
 
-    private Class<?> getMainActivityClass() {
-        // Get the main activity class from the application
-        String packageName = getPackageName();
-        Intent launchIntent = getPackageManager().getLaunchIntentForPackage(packageName);
-        if (launchIntent != null && launchIntent.getComponent() != null) {
-            try {
-                return Class.forName(launchIntent.getComponent().getClassName());
-            } catch (ClassNotFoundException e) {
-                Log.e(TAG, "Could not find main activity class", e);
-            }
-        }
-
-        // Fallback - assume standard Capacitor activity name
-        try {
-            return Class.forName(packageName + ".MainActivity");
-        } catch (ClassNotFoundException e) {
-            Log.e(TAG, "Could not find MainActivity", e);
-            return null;
-        }
-    }
-
     // Call listener for handling call events
     private final Call.Listener callListener = new Call.Listener() {
         @Override
         public void onConnected(Call call) {
             Log.d(TAG, "Call connected: " + call.getSid());
-            activeCall = call;
-            currentCallSid = call.getSid();
+            trackCall(call);
+            if (activeCall == null) {
+                activeCall = call;
+            }
 
             activateAudioSwitch();
+            qualityMonitor.start(call);
+            CallHistoryStore.Record record = historyRecords.get(call);
+            if (record != null && record.connectedAt == 0) {
+                record.connectedAt = System.currentTimeMillis();
+            }
+            CallSetupTracer.finish(traceIds.remove(call), call.getSid(), true);
 
             // Update notification to show connected state with actions
             updateOngoingCallNotification();
@@ -444,17 +684,13 @@ public class VoiceCallService extends Service {
         @Override
         public void onConnectFailure(Call call, CallException error) {
             Log.e(TAG, "Call connect failure: " + call.getSid() + (error != null ? " Error: " + error.getMessage() : ""));
+            CallSetupTracer.finish(traceIds.remove(call), call.getSid(), false);
 
-            activeCall = null;
-            currentCallSid = null;
+            onCallEnded(call, error);
 
             if (serviceListener != null) {
                 serviceListener.onCallDisconnected(call, error);
             }
-
-            // Stop foreground service on failure
-            stopForeground(true);
-            stopSelf();
         }
 
         @Override
@@ -479,20 +715,11 @@ public class VoiceCallService extends Service {
         public void onDisconnected(Call call, CallException error) {
             Log.d(TAG, "Call disconnected: " + call.getSid() + (error != null ? " Error: " + error.getMessage() : ""));
 
-            activeCall = null;
-            currentCallSid = null;
-            isCallMuted = false;
-            isSpeakerEnabled = false;
-
-            deactivateAudioSwitch();
+            onCallEnded(call, error);
 
             if (serviceListener != null) {
                 serviceListener.onCallDisconnected(call, error);
             }
-
-            // Stop foreground service
-            stopForeground(true);
-            stopSelf();
         }
 
         @Override
@@ -511,6 +738,8 @@ public class VoiceCallService extends Service {
         @Override
         public void onRinging(Call call) {
             Log.d(TAG, "Call ringing: " + call.getSid());
+            CallSetupTracer.stamp(traceIds.get(call), CallSetupTracer.STAGE_RINGING);
+            trackCall(call);
 
             // Update notification to show ringing state
             Notification notification = createOngoingCallNotification("Ringing...", false);
@@ -530,15 +759,41 @@ public class VoiceCallService extends Service {
         return activeCall;
     }
 
+    /**
+     * All calls handled by the service, in the order they were started.
+     */
+    public List<Call> getCalls() {
+        return new ArrayList<>(orderedCalls);
+    }
+
     public String getCurrentCallSid() {
-        return currentCallSid;
+        return activeCall != null ? activeCall.getSid() : null;
     }
 
     public boolean isCallMuted() {
-        return isCallMuted;
+        return activeCall != null && mutedCalls.contains(activeCall);
+    }
+
+    public boolean isCallMuted(Call call) {
+        return mutedCalls.contains(call);
     }
 
     public boolean isSpeakerEnabled() {
         return isSpeakerEnabled;
     }
+
+    /**
+     * Sets how often call quality is sampled and reported, see {@link CallQualityMonitor#configure}.
+     */
+    public void configureQualityMonitoring(long sampleIntervalMs, long emitIntervalMs) {
+        qualityMonitor.configure(sampleIntervalMs, emitIntervalMs);
+    }
+
+    /**
+     * Quality summary of a call that ended recently, or null if it was not sampled.
+     */
+    @Nullable
+    public CallQualityMonitor.Summary getQualitySummary(@Nullable String callSid) {
+        return qualityMonitor.getSummary(callSid);
+    }
 }
@@ -1,5 +1,6 @@
 package ee.forgr.capacitor_twilio_voice;
 
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -28,16 +29,15 @@ public class VoiceFirebaseMessagingService extends FirebaseMessagingService impl
         // Token refresh is handled in the plugin's initializeFCM method
     }
 
+    // When the message being handled arrived, the invite callbacks run within handleMessage
+    private long messageReceivedAt;
+
     @Override
     public void onMessageReceived(@NonNull RemoteMessage remoteMessage) {
-        Log.d(
-            TAG,
-            String.format(
-                "HIGHEST PRIORITY: Received Firebase message\n\tmessage data: %s\n\tfrom: %s",
-                remoteMessage.getData(),
-                remoteMessage.getFrom()
-            )
-        );
+        messageReceivedAt = SystemClock.elapsedRealtime();
+
+        // Only the size of the payload, formatting it delays every push
+        Log.d(TAG, "Received Firebase message from: " + remoteMessage.getFrom() + " (" + remoteMessage.getData().size() + " fields)");
 
         // Check if message contains a data payload and handle with Twilio Voice SDK
         if (!remoteMessage.getData().isEmpty()) {
@@ -47,7 +47,7 @@ public class VoiceFirebaseMessagingService extends FirebaseMessagingService impl
                 // DO NOT call super.onMessageReceived() for Twilio messages to prevent other services from handling them
                 return;
             } else {
-                Log.w(TAG, String.format("Received message was not a valid Twilio Voice SDK payload: %s", remoteMessage.getData()));
+                Log.w(TAG, "Received message was not a valid Twilio Voice SDK payload: " + remoteMessage.getData().keySet());
             }
         }
 
@@ -56,27 +56,38 @@ public class VoiceFirebaseMessagingService extends FirebaseMessagingService impl
     }
 
     // MessageListener implementation
+    // The listener runs on the FCM thread, the invites are processed by the pipeline worker while it waits
     @Override
     public void onCallInvite(@NonNull CallInvite callInvite) {
         Log.d(TAG, "Received call invite from: " + callInvite.getFrom());
-        handleIncomingCallInvite(callInvite);
+        long receivedAt = SystemClock.elapsedRealtime();
+        CallSetupTracer.begin(
+            callInvite.getCallSid(),
+            CallSetupTracer.DIRECTION_INCOMING,
+            CallSetupTracer.STAGE_PUSH_RECEIVED,
+            messageReceivedAt
+        );
+        CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_INVITE_PARSED, receivedAt);
+        CallInvitePipeline.submit(() -> handleIncomingCallInvite(callInvite, receivedAt));
     }
 
     @Override
     public void onCancelledCallInvite(@NonNull CancelledCallInvite cancelledCallInvite, @Nullable CallException callException) {
         Log.d(TAG, "Received cancelled call invite");
-        handleCancelledCallInvite(cancelledCallInvite);
+        CallInvitePipeline.submit(() -> handleCancelledCallInvite(cancelledCallInvite));
     }
 
-    private void handleIncomingCallInvite(CallInvite callInvite) {
+    private void handleIncomingCallInvite(CallInvite callInvite, long receivedAt) {
         Log.d(TAG, "Handling incoming call invite from: " + callInvite.getFrom());
+        CallSetupTracer.stamp(callInvite.getCallSid(), CallSetupTracer.STAGE_INVITE_DEQUEUED);
 
         // Get the plugin instance and handle the call invite
         CapacitorTwilioVoicePlugin plugin = CapacitorTwilioVoicePlugin.getInstance();
         if (plugin != null) {
-            plugin.handleCallInvite(callInvite);
+            plugin.handleCallInvite(callInvite, receivedAt);
         } else {
-            Log.w(TAG, "Plugin instance not available to handle call invite");
+            Log.d(TAG, "Plugin instance not available, handling call invite headless");
+            HeadlessCallInvites.handleInvite(getApplicationContext(), callInvite);
         }
     }
 
@@ -88,7 +99,7 @@ public class VoiceFirebaseMessagingService extends FirebaseMessagingService impl
         if (plugin != null) {
             plugin.handleCancelledCallInvite(cancelledCallInvite);
         } else {
-            Log.w(TAG, "Plugin instance not available to handle cancelled call invite");
+            HeadlessCallInvites.handleCancelledInvite(getApplicationContext(), cancelledCallInvite);
         }
     }
 }
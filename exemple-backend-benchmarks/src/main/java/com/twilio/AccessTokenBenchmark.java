@@ -0,0 +1,50 @@
+package com.twilio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of serving {@code /accessToken/{ios,android}}: {@code getAccessToken} as called by the handlers
+ * (cache hit after the first invocation) versus always signing a new JWT.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessTokenBenchmark {
+
+    @Param({ "ios", "android" })
+    public String platform;
+
+    public String identity = "alice";
+
+    private AccessTokenCache uncached;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.initWebapp();
+        uncached = AccessTokenCache.fromSystemProperties();
+    }
+
+    @Benchmark
+    public String getAccessToken() {
+        return Webapp.getAccessToken(identity, platform);
+    }
+
+    @Benchmark
+    public String mintAccessToken() {
+        return uncached.mint(identity, platform);
+    }
+}
@@ -0,0 +1,36 @@
+package com.twilio;
+
+/**
+ * Shared fixtures for the benchmarks.
+ */
+final class BenchmarkSupport {
+
+    /** A representative Twilio Voice webhook body as posted to {@code /makeCall}. */
+    static final String WEBHOOK_BODY =
+        "AccountSid=ACXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX&ApiVersion=2010-04-01" +
+        "&ApplicationSid=APXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX&CallSid=CAXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX" +
+        "&CallStatus=ringing&Called=&Caller=client%3Aquick_start&Direction=inbound" +
+        "&From=client%3Aquick_start&To=&to=alice&CallToken=%7B%22parentCallInfoToken%22%3A%22eyJhbGciOiJFUzI1NiJ9%22%7D";
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Initializes {@link Webapp} with placeholder credentials. Tokens are signed locally, nothing is sent to Twilio.
+     */
+    static void initWebapp() {
+        setIfAbsent("ACCOUNT_SID", "ACXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        setIfAbsent("API_KEY", "SKXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        setIfAbsent("API_KEY_SID", "SKXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        setIfAbsent("API_SECRET", "benchmark-secret-benchmark-secret");
+        setIfAbsent("APP_SID", "APXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        setIfAbsent("PUSH_CREDENTIAL_SID_IOS", "CRXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        setIfAbsent("PUSH_CREDENTIAL_SID_ANDROID", "CRXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX");
+        Webapp.init();
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.twilio;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-request logging of the handlers with 8 concurrent request threads: the former {@code System.out.println(jwt)}
+ * versus {@link RateLimitedLogger} with the level disabled (the default for the handler lines) and enabled.
+ * <br><br>
+ * {@code System.out} is replaced by an autoflushing stream that discards its output, so the measurement keeps the
+ * {@link PrintStream} lock every request thread contends on but not the terminal itself; a real console is slower.
+ * Throughput is in operations per millisecond, i.e. thousands of requests per second.
+ * <br><br>
+ * The {@code ...At1k} variants pace the same 8 threads to 1000 requests per second in total and sample the latency
+ * of each logging call, which is what a request sees on a server at that rate rather than at saturation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HandlerLoggingBenchmark {
+
+    private static final String JWT =
+        "eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiIsImN0eSI6InR3aWxpby1mcGE7dj0xIn0." +
+        "eyJqdGkiOiJTS3h4eHgtMTcwMDAwMDAwMCIsImdyYW50cyI6eyJpZGVudGl0eSI6ImFsaWNlIn19." +
+        "c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmU";
+
+    /** One request per millisecond, shared by all threads. */
+    private static final long REQUEST_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Start times of the paced requests. Reset every iteration so the pause between iterations is not caught up
+     * in a burst.
+     */
+    @State(Scope.Benchmark)
+    public static class Schedule {
+
+        private final AtomicLong nextStart = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nextStart.set(System.nanoTime());
+        }
+    }
+
+    /**
+     * Waits for the next request slot before each paced invocation. The wait is a setup step, so it is not part
+     * of the sampled time; a slot that is already due runs immediately.
+     */
+    @State(Scope.Thread)
+    public static class Pacer {
+
+        @Setup(Level.Invocation)
+        public void awaitSlot(Schedule schedule) {
+            long start = schedule.nextStart.getAndAdd(REQUEST_INTERVAL_NS);
+            long remaining;
+            while ((remaining = start - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    private PrintStream originalOut;
+    private RateLimitedLogger rateLimited;
+
+    @Setup
+    public void setup() {
+        originalOut = System.out;
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {}
+
+            @Override
+            public void write(byte[] b, int off, int len) {}
+        };
+        System.setOut(new PrintStream(new BufferedOutputStream(discard, 8192), true));
+        rateLimited = new RateLimitedLogger(LoggerFactory.getLogger(HandlerLoggingBenchmark.class), RateLimitedLogger.DEFAULT_MAX_PER_SECOND);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void systemOut() {
+        System.out.println(JWT);
+    }
+
+    @Benchmark
+    public void loggerDisabledLevel() {
+        rateLimited.debug("Access token for {} on {}: {}", "alice", "ios", JWT);
+    }
+
+    @Benchmark
+    public void loggerRateLimited() {
+        rateLimited.info("Access token for {} on {}: {}", "alice", "ios", RateLimitedLogger.redact(JWT));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void systemOutAt1k(Pacer pacer) {
+        System.out.println(JWT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void loggerDisabledLevelAt1k(Pacer pacer) {
+        rateLimited.debug("Access token for {} on {}: {}", "alice", "ios", JWT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void loggerRateLimitedAt1k(Pacer pacer) {
+        rateLimited.info("Access token for {} on {}: {}", "alice", "ios", RateLimitedLogger.redact(JWT));
+    }
+}
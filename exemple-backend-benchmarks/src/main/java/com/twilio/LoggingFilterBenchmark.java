@@ -0,0 +1,98 @@
+package com.twilio;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+import jakarta.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LoggingFilter#logRequestResponse} as run by the {@code after} filter on every request.
+ * <br><br>
+ * The request is a proxy-backed {@link Context} returning the headers of a typical Twilio webhook;
+ * the proxy dispatch cost is part of the measurement and the same for every run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingFilterBenchmark {
+
+    private Context ctx;
+
+    @Setup
+    public void setup() {
+        Map<String, String> requestHeaders = new LinkedHashMap<>();
+        requestHeaders.put("Host", "example.ngrok.io");
+        requestHeaders.put("User-Agent", "TwilioProxy/1.1");
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+        requestHeaders.put("Content-Length", String.valueOf(BenchmarkSupport.WEBHOOK_BODY.length()));
+        requestHeaders.put("X-Twilio-Signature", "3c2g4Yx0bK0D5Xq4Lb7YVrNcHM4=");
+        requestHeaders.put("I-Twilio-Idempotency-Token", "2f2f9e02-2a4e-4c5e-9b8e-2a4a7d1d2c3b");
+
+        Map<String, String> responseHeaders = new LinkedHashMap<>();
+        responseHeaders.put("Access-Control-Allow-Origin", "*");
+        responseHeaders.put("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        responseHeaders.put("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        responseHeaders.put("Content-Type", "text/plain");
+
+        HttpServletResponse res = (HttpServletResponse) Proxy.newProxyInstance(
+            HttpServletResponse.class.getClassLoader(),
+            new Class<?>[] { HttpServletResponse.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getHeaderNames":
+                        return responseHeaders.keySet();
+                    case "getHeader":
+                        return responseHeaders.get((String) args[0]);
+                    default:
+                        throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+                }
+            }
+        );
+
+        ctx = (Context) Proxy.newProxyInstance(Context.class.getClassLoader(), new Class<?>[] { Context.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "headerMap":
+                    return requestHeaders;
+                case "header":
+                    return requestHeaders.get((String) args[0]);
+                case "res":
+                    return res;
+                case "method":
+                    return HandlerType.POST;
+                case "path":
+                    return "/makeCall";
+                case "protocol":
+                    return "HTTP/1.1";
+                case "status":
+                    return HttpStatus.OK;
+                case "body":
+                    return BenchmarkSupport.WEBHOOK_BODY;
+                default:
+                    throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+            }
+        });
+    }
+
+    @Benchmark
+    public void logRequestResponse() {
+        LoggingFilter.logRequestResponse(ctx);
+    }
+}
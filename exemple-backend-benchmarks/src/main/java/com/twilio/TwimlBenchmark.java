@@ -0,0 +1,71 @@
+package com.twilio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the Twilio builder/serializer path with the precomputed {@link TwimlTemplates} for the
+ * responses served by {@code /makeCall} and {@code /incoming}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TwimlBenchmark {
+
+    @Param({ "alice", "+15551234567", "" })
+    public String to;
+
+    public String from = "client:quick_start";
+
+    private TwimlTemplates templates;
+
+    @Setup
+    public void setup() {
+        templates = new TwimlTemplates();
+    }
+
+    @Benchmark
+    public String callBuilder() {
+        if (to.isEmpty()) {
+            return TwimlTemplates.sayResponse(TwimlTemplates.FIRST_CALL_TEXT).toXml();
+        } else if (to.charAt(0) == '+') {
+            return TwimlTemplates.dialNumberResponse(to).toXml();
+        } else {
+            return TwimlTemplates.dialClientResponse(to, from).toXml();
+        }
+    }
+
+    @Benchmark
+    public byte[] callTemplate() {
+        if (to.isEmpty()) {
+            return templates.firstCall();
+        } else if (to.charAt(0) == '+') {
+            return templates.dialNumber(to);
+        } else {
+            return templates.dialClient(to, from);
+        }
+    }
+
+    @Benchmark
+    public String greetBuilder() {
+        return TwimlTemplates.sayResponse(TwimlTemplates.GREETING_TEXT).toXml();
+    }
+
+    @Benchmark
+    public byte[] greetTemplate() {
+        return templates.greeting();
+    }
+}
@@ -0,0 +1,78 @@
+package com.twilio;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.net.WWWFormCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The work done by {@code /makeCall}, the webhook Twilio requests for every outgoing call:
+ * form parsing (previous {@code URLEncodedUtils} path versus {@link FormParams}), destination classification
+ * and TwiML rendering.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookBenchmark {
+
+    /** Client identity, phone number and empty (echo test) branches of {@code call(to, from)}. */
+    @Param({ "alice", "+15551234567", "" })
+    public String to;
+
+    public String from = "client:quick_start";
+
+    private byte[] webhookBody;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.initWebapp();
+        webhookBody = BenchmarkSupport.WEBHOOK_BODY.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] call() {
+        return Webapp.call(to, from);
+    }
+
+    @Benchmark
+    public boolean isPhoneNumber() {
+        return !to.isEmpty() && Webapp.isPhoneNumber(to);
+    }
+
+    /**
+     * The previous handler path: parse every pair, then copy them all into a map. The handlers used HttpClient 4's
+     * {@code URLEncodedUtils}, {@link WWWFormCodec} is its HttpClient 5 equivalent shipped with the Twilio SDK.
+     */
+    @Benchmark
+    public Map<String, String> parseToMap() {
+        List<NameValuePair> pairs = WWWFormCodec.parse(BenchmarkSupport.WEBHOOK_BODY, Charset.defaultCharset());
+        Map<String, String> map = new HashMap<>();
+        for (NameValuePair pair : pairs) {
+            map.put(pair.getName(), pair.getValue());
+        }
+        return map;
+    }
+
+    @Benchmark
+    public String[] formParams() {
+        return FormParams.get(webhookBody, "to", "From");
+    }
+}
@@ -0,0 +1,165 @@
+package com.twilio;
+
+import com.twilio.jwt.accesstoken.AccessToken;
+import com.twilio.jwt.accesstoken.VoiceGrant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of signed access tokens keyed by (identity, platform).
+ * <br><br>
+ * A cached token is handed out again until {@code refreshMargin} before it expires, after which the next
+ * request signs a fresh one. Credentials are read once at construction instead of on every request.
+ */
+public class AccessTokenCache {
+
+    static final int TOKEN_TTL_SECONDS = 86400;
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+    static final long DEFAULT_REFRESH_MARGIN_SECONDS = 3600L;
+
+    private static class CachedToken {
+
+        private final String jwt;
+        private final long refreshAtMillis;
+
+        CachedToken(String jwt, long refreshAtMillis) {
+            this.jwt = jwt;
+            this.refreshAtMillis = refreshAtMillis;
+        }
+    }
+
+    private final String accountSid;
+    private final String apiKeySid;
+    private final byte[] apiSecret;
+    private final String appSid;
+    private final String iosPushCredentialSid;
+    private final String androidPushCredentialSid;
+
+    private final int maxEntries;
+    private final long reuseWindowMillis;
+    private final Map<String, CachedToken> tokens;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder iosMints = new LongAdder();
+    private final LongAdder androidMints = new LongAdder();
+
+    public AccessTokenCache(
+        final String accountSid,
+        final String apiKeySid,
+        final String apiSecret,
+        final String appSid,
+        final String iosPushCredentialSid,
+        final String androidPushCredentialSid,
+        final int maxEntries,
+        final long refreshMarginSeconds
+    ) {
+        this.accountSid = accountSid;
+        this.apiKeySid = apiKeySid;
+        this.apiSecret = apiSecret != null ? apiSecret.getBytes() : null;
+        this.appSid = appSid;
+        this.iosPushCredentialSid = iosPushCredentialSid;
+        this.androidPushCredentialSid = androidPushCredentialSid;
+        this.maxEntries = maxEntries;
+        this.reuseWindowMillis = TimeUnit.SECONDS.toMillis(Math.max(0L, TOKEN_TTL_SECONDS - refreshMarginSeconds));
+        this.tokens = new LinkedHashMap<String, CachedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                if (size() > AccessTokenCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Builds the cache from the credentials loaded by {@code Webapp.dotenv()}.
+     * <br><br>
+     * Tunables: {@code TOKEN_CACHE_MAX_ENTRIES} (0 disables caching) and {@code TOKEN_CACHE_REFRESH_MARGIN_SECONDS}.
+     */
+    public static AccessTokenCache fromSystemProperties() {
+        return new AccessTokenCache(
+            System.getProperty("ACCOUNT_SID"),
+            System.getProperty("API_KEY_SID"),
+            System.getProperty("API_SECRET"),
+            System.getProperty("APP_SID"),
+            System.getProperty("PUSH_CREDENTIAL_SID_IOS"),
+            System.getProperty("PUSH_CREDENTIAL_SID_ANDROID"),
+            Integer.getInteger("TOKEN_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES),
+            Long.getLong("TOKEN_CACHE_REFRESH_MARGIN_SECONDS", DEFAULT_REFRESH_MARGIN_SECONDS)
+        );
+    }
+
+    /**
+     * Returns a still-valid token for the identity on the given platform ("ios" or "android"),
+     * signing a new one only on a miss or once the cached one enters its refresh margin.
+     */
+    public String get(final String identity, final String platform) {
+        final String key = platform + ':' + identity;
+        final long now = System.currentTimeMillis();
+
+        synchronized (tokens) {
+            CachedToken cached = tokens.get(key);
+            if (cached != null && now < cached.refreshAtMillis) {
+                hits.increment();
+                return cached.jwt;
+            }
+        }
+
+        misses.increment();
+        final String jwt = mint(identity, platform);
+        if (maxEntries > 0) {
+            synchronized (tokens) {
+                tokens.put(key, new CachedToken(jwt, now + reuseWindowMillis));
+            }
+        }
+        return jwt;
+    }
+
+    String mint(final String identity, final String platform) {
+        ("ios".equals(platform) ? iosMints : androidMints).increment();
+
+        // Create Voice grant
+        VoiceGrant grant = new VoiceGrant();
+        grant.setOutgoingApplicationSid(appSid);
+        grant.setPushCredentialSid("ios".equals(platform) ? iosPushCredentialSid : androidPushCredentialSid);
+
+        // Create access token
+        AccessToken token = new AccessToken.Builder(accountSid, apiKeySid, apiSecret)
+            .identity(identity)
+            .grant(grant)
+            .ttl(TOKEN_TTL_SECONDS)
+            .build();
+        return token.toJwt();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of tokens signed for the platform ("ios" or "android").
+     */
+    public long getMints(final String platform) {
+        return ("ios".equals(platform) ? iosMints : androidMints).sum();
+    }
+
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0d : (double) h / total;
+    }
+}
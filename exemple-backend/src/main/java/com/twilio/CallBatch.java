@@ -0,0 +1,147 @@
+package com.twilio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Places one call per target and streams the outcome of each as a line of NDJSON as soon as it completes.
+ * <br><br>
+ * Every target is submitted at once to the bounded {@link CallPlacementExecutor}, which starts each one when its
+ * {@link CallRateLimiter} token is due (if CPS pacing is enabled) and a slot is free. Each result line is written by
+ * the thread that placed the call as soon as it completes, so SIDs reach the client while later targets are still
+ * waiting for their turn.
+ * Each line is either {@code {"to":"...","sid":"CA..."}} or {@code {"to":"...","error":"..."}}.
+ */
+public class CallBatch {
+
+    static final int DEFAULT_MAX_TARGETS = 1000;
+    static final int DEFAULT_MAX_CONCURRENCY = 20;
+
+    private final CallPlacementExecutor executor;
+    private final CallRateLimiter rateLimiter;
+    private final String accountSid;
+    private final Function<String, String> placeCall;
+
+    /**
+     * @param rateLimiter paces the calls to the account's CPS limit, or {@code null} to start them as slots free up
+     * @param placeCall creates the call to the given target and returns its SID
+     */
+    public CallBatch(
+        final CallPlacementExecutor executor,
+        final CallRateLimiter rateLimiter,
+        final String accountSid,
+        final Function<String, String> placeCall
+    ) {
+        this.executor = executor;
+        this.rateLimiter = rateLimiter;
+        this.accountSid = accountSid;
+        this.placeCall = placeCall;
+    }
+
+    /**
+     * Splits a comma or newline separated list of targets, skipping blank entries.
+     */
+    public static List<String> parseTargets(final String targets) {
+        final List<String> result = new ArrayList<>();
+        if (targets == null) {
+            return result;
+        }
+        for (String target : targets.split("[,\\n]")) {
+            target = target.trim();
+            if (!target.isEmpty()) {
+                result.add(target);
+            }
+        }
+        return result;
+    }
+
+    public void run(final List<String> targets, final OutputStream out) throws IOException, InterruptedException {
+        final LineWriter writer = new LineWriter(out);
+        final List<CompletableFuture<Void>> results = new ArrayList<>(targets.size());
+        for (final String to : targets) {
+            final long delayNanos = rateLimiter != null ? rateLimiter.reserve(accountSid) : 0;
+            results.add(
+                executor
+                    .submitAfter(delayNanos, () -> {
+                        // The client went away, do not place the remaining calls
+                        return writer.failure != null ? null : placeCall.apply(to);
+                    })
+                    .handle((sid, error) -> {
+                        writer.write(line(to, sid, error));
+                        return null;
+                    })
+            );
+        }
+        try {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+    }
+
+    // Serializes the result lines written from the executor threads; stops writing after the first failure
+    private static final class LineWriter {
+
+        private final OutputStream out;
+        private volatile IOException failure;
+
+        LineWriter(final OutputStream out) {
+            this.out = out;
+        }
+
+        synchronized void write(final byte[] line) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                out.write(line);
+                out.flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    static byte[] line(final String to, final String sid, final Throwable error) {
+        final StringBuilder sb = new StringBuilder(96).append("{\"to\":");
+        quote(sb, to);
+        if (error == null) {
+            sb.append(",\"sid\":");
+            quote(sb, sid);
+        } else {
+            final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            sb.append(",\"error\":");
+            quote(sb, cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        }
+        return sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void quote(final StringBuilder sb, final String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
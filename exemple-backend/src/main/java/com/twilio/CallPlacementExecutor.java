@@ -0,0 +1,133 @@
+package com.twilio;
+
+import io.javalin.util.ConcurrencyUtil;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking Twilio REST calls off the Jetty request threads with a cap on how many may be in flight.
+ * <br><br>
+ * Work is submitted from a handler through {@code ctx.future(...)}, so the request thread is released while the
+ * REST call is pending. When the cap is reached new submissions fail fast with a {@link RejectedExecutionException}
+ * instead of queueing without bound.
+ */
+public class CallPlacementExecutor {
+
+    static final int DEFAULT_MAX_CONCURRENCY = 200;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    // Tasks due to run that are waiting for a permit, started as permits are released
+    private final Queue<Pending<?>> waiting = new ConcurrentLinkedQueue<>();
+
+    private static final class Pending<T> {
+
+        final Supplier<T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Pending(final Supplier<T> task) {
+            this.task = task;
+        }
+    }
+
+    public CallPlacementExecutor(final int maxConcurrency, final boolean useVirtualThreads) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        // Virtual threads when requested and available (JDK 21+), otherwise a cached platform thread pool
+        this.executor = ConcurrencyUtil.executorService("CallPlacementExecutor", useVirtualThreads);
+    }
+
+    /**
+     * Tunables: {@code PLACE_CALL_MAX_CONCURRENCY} and {@code USE_VIRTUAL_THREADS}.
+     */
+    public static CallPlacementExecutor fromSystemProperties() {
+        return new CallPlacementExecutor(
+            Integer.getInteger("PLACE_CALL_MAX_CONCURRENCY", DEFAULT_MAX_CONCURRENCY),
+            Boolean.getBoolean("USE_VIRTUAL_THREADS")
+        );
+    }
+
+    public <T> CompletableFuture<T> submit(final Supplier<T> task) {
+        if (!permits.tryAcquire()) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(
+                new RejectedExecutionException("Too many concurrent call placements (limit " + maxConcurrency + ")")
+            );
+            return future;
+        }
+        return execute(task);
+    }
+
+    /**
+     * Like {@link #submit(Supplier)} but queues instead of rejecting, for batches: the task becomes due after
+     * {@code delayNanos} and then waits for a free slot. Neither wait holds a permit or a thread.
+     */
+    public <T> CompletableFuture<T> submitAfter(final long delayNanos, final Supplier<T> task) {
+        final Pending<T> pending = new Pending<>(task);
+        final Runnable enqueue = () -> {
+            waiting.add(pending);
+            startWaiting();
+        };
+        if (delayNanos > 0) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(enqueue);
+        } else {
+            enqueue.run();
+        }
+        return pending.future;
+    }
+
+    // Starts queued tasks while permits are free; called on every enqueue and release so none is left behind
+    private void startWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            final Pending<?> next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            start(next);
+        }
+    }
+
+    private <T> void start(final Pending<T> pending) {
+        try {
+            executor.execute(() -> run(pending.task, pending.future));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(final Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(task, future));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Runs with a permit already taken and releases it
+    private <T> void run(final Supplier<T> task, final CompletableFuture<T> future) {
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            permits.release();
+            startWaiting();
+        }
+    }
+
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+}
@@ -0,0 +1,88 @@
+package com.twilio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account token bucket keeping outbound call creation within the account's calls-per-second (CPS) limit.
+ * <br><br>
+ * Each account gets {@code callsPerSecond} tokens per second and may burst up to {@code burst} calls. Nothing
+ * here blocks: a caller either takes a token that is available now, or reserves the next one and is told how long
+ * until it is due.
+ */
+public class CallRateLimiter {
+
+    static final int DEFAULT_BURST = 1;
+
+    private static final class Bucket {
+
+        // Time at which the next token becomes available; tokens "in the past" up to the burst are usable now
+        private long nextFreeNanos;
+
+        Bucket(final long nextFreeNanos) {
+            this.nextFreeNanos = nextFreeNanos;
+        }
+    }
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public CallRateLimiter(final double callsPerSecond, final int burst) {
+        if (!(callsPerSecond > 0)) {
+            throw new IllegalArgumentException("TWILIO_CPS must be greater than 0, got " + callsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / callsPerSecond);
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    /**
+     * Tunables: {@code TWILIO_CPS} and {@code TWILIO_CPS_BURST}. Pacing is opt-in, returns {@code null} when
+     * {@code TWILIO_CPS} is not set.
+     */
+    public static CallRateLimiter fromSystemProperties() {
+        final String callsPerSecond = System.getProperty("TWILIO_CPS");
+        if (callsPerSecond == null || callsPerSecond.trim().isEmpty()) {
+            return null;
+        }
+        return new CallRateLimiter(Double.parseDouble(callsPerSecond.trim()), Integer.getInteger("TWILIO_CPS_BURST", DEFAULT_BURST));
+    }
+
+    /**
+     * Takes a token if one is available now. Returns 0 when the call may be created, otherwise the nanoseconds until
+     * the next token, in which case nothing is taken.
+     */
+    public long tryAcquire(final String accountSid) {
+        final Bucket bucket = bucket(accountSid);
+        final long now = System.nanoTime();
+        synchronized (bucket) {
+            final long due = Math.max(bucket.nextFreeNanos, now - burstNanos);
+            if (due > now) {
+                return due - now;
+            }
+            bucket.nextFreeNanos = due + intervalNanos;
+            return 0;
+        }
+    }
+
+    /**
+     * Reserves the next token and returns the nanoseconds until it is due, 0 if it is available now. The caller
+     * is expected to start the call once that delay has elapsed.
+     */
+    public long reserve(final String accountSid) {
+        final Bucket bucket = bucket(accountSid);
+        final long now = System.nanoTime();
+        final long due;
+        synchronized (bucket) {
+            due = Math.max(bucket.nextFreeNanos, now - burstNanos);
+            bucket.nextFreeNanos = due + intervalNanos;
+        }
+        return Math.max(0, due - now);
+    }
+
+    private Bucket bucket(final String accountSid) {
+        // A new account starts with its full burst
+        return buckets.computeIfAbsent(accountSid, (sid) -> new Bucket(System.nanoTime() - burstNanos));
+    }
+}
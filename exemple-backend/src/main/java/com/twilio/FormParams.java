@@ -0,0 +1,124 @@
+package com.twilio;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass reader for {@code application/x-www-form-urlencoded} request bodies.
+ * <br><br>
+ * Only the values of the requested keys are decoded, straight from the body bytes; every other field of the
+ * (usually large) Twilio webhook payload is skipped without allocating. As with a map built from the parsed pairs,
+ * the last occurrence of a key wins, a key without {@code =} yields {@code null} and an absent key yields {@code null}.
+ * Requested keys must be plain ASCII.
+ */
+public final class FormParams {
+
+    private FormParams() {}
+
+    public static String get(final byte[] body, final String key) {
+        return get(body, new String[] { key })[0];
+    }
+
+    /**
+     * Returns the decoded values of {@code keys}, in the same order.
+     */
+    public static String[] get(final byte[] body, final String... keys) {
+        final String[] values = new String[keys.length];
+        int pairStart = 0;
+        while (pairStart < body.length) {
+            int pairEnd = indexOf(body, (byte) '&', pairStart, body.length);
+            if (pairEnd < 0) {
+                pairEnd = body.length;
+            }
+            int separator = indexOf(body, (byte) '=', pairStart, pairEnd);
+            int keyEnd = separator >= 0 ? separator : pairEnd;
+
+            if (keyEnd > pairStart) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keyMatches(body, pairStart, keyEnd, keys[i])) {
+                        values[i] = separator >= 0 ? decode(body, separator + 1, pairEnd) : null;
+                    }
+                }
+            }
+            pairStart = pairEnd + 1;
+        }
+        return values;
+    }
+
+    private static int indexOf(final byte[] body, final byte b, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (body[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the url-encoded key in {@code body[start, end)} with {@code key}, decoding as it goes.
+     */
+    private static boolean keyMatches(final byte[] body, final int start, final int end, final String key) {
+        int k = 0;
+        int i = start;
+        while (i < end) {
+            int c = body[i] & 0xFF;
+            if (c == '+') {
+                c = ' ';
+                i++;
+            } else if (c == '%' && i + 2 < end && hex(body, i + 1) >= 0 && hex(body, i + 2) >= 0) {
+                c = (hex(body, i + 1) << 4) | hex(body, i + 2);
+                i += 3;
+            } else {
+                i++;
+            }
+            if (k >= key.length() || key.charAt(k) != c) {
+                return false;
+            }
+            k++;
+        }
+        return k == key.length();
+    }
+
+    private static String decode(final byte[] body, final int start, final int end) {
+        byte[] out = null;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = body[i];
+            if (b == '+' || b == '%') {
+                if (out == null) {
+                    out = new byte[end - start];
+                    System.arraycopy(body, start, out, 0, i - start);
+                    length = i - start;
+                }
+                if (b == '+') {
+                    out[length++] = ' ';
+                    continue;
+                }
+                if (i + 2 < end && hex(body, i + 1) >= 0 && hex(body, i + 2) >= 0) {
+                    out[length++] = (byte) ((hex(body, i + 1) << 4) | hex(body, i + 2));
+                    i += 2;
+                    continue;
+                }
+                // Malformed escape, keep the '%' as is
+                out[length++] = b;
+            } else if (out != null) {
+                out[length++] = b;
+            }
+        }
+        if (out == null) {
+            return new String(body, start, end - start, StandardCharsets.UTF_8);
+        }
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int hex(final byte[] body, final int index) {
+        int c = body[index];
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
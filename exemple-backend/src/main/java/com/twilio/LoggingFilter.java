@@ -2,6 +2,10 @@ package com.twilio;
 
 import io.javalin.http.Context;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -13,7 +17,58 @@ public class LoggingFilter {
     private static final String TEMPLATE_WITH_NO_BODY = "\nRequest {} {} {} HEADERS:[{}] \nResponse {} HEADERS:[{}]";
     private static Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
 
+    private static RequestLogRing ring;
+    private static double defaultSampleRate = 1d;
+    private static Map<String, Double> sampleRates = Collections.emptyMap();
+
+    /**
+     * Enables the asynchronous structured mode when {@code LOG_MODE=structured}.
+     * <br><br>
+     * Tunables: {@code LOG_RING_CAPACITY}, {@code LOG_HEADER_ALLOWLIST} (comma separated header names) and
+     * {@code LOG_SAMPLE_RATES} (comma separated {@code path=rate} pairs, {@code *} for the default rate).
+     */
+    public static void configure() {
+        if (!"structured".equalsIgnoreCase(System.getProperty("LOG_MODE"))) {
+            return;
+        }
+
+        Map<String, Double> rates = new HashMap<>();
+        String sampleRatesProperty = System.getProperty("LOG_SAMPLE_RATES", "");
+        for (String entry : sampleRatesProperty.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String route = entry.substring(0, separator).trim();
+            double rate = Double.parseDouble(entry.substring(separator + 1).trim());
+            if ("*".equals(route)) {
+                defaultSampleRate = rate;
+            } else {
+                rates.put(route, rate);
+            }
+        }
+        sampleRates = rates;
+
+        String[] headerAllowList = System.getProperty("LOG_HEADER_ALLOWLIST", "Host,User-Agent,Content-Type,Content-Length").split(",");
+        for (int i = 0; i < headerAllowList.length; i++) {
+            headerAllowList[i] = headerAllowList[i].trim();
+        }
+        ring = new RequestLogRing(logger, Integer.getInteger("LOG_RING_CAPACITY", 4096), headerAllowList);
+    }
+
+    public static RequestLogRing getRing() {
+        return ring;
+    }
+
     public static void logRequestResponse(Context ctx) {
+        if (ring != null) {
+            double rate = sampleRates.getOrDefault(ctx.path(), defaultSampleRate);
+            if (rate >= 1d || ThreadLocalRandom.current().nextDouble() < rate) {
+                ring.offer(ctx, logger.isDebugEnabled());
+            }
+            return;
+        }
+
         String requestHeaderString = buildHeadersString(ctx.headerMap().keySet(), (h) -> ctx.header(h));
         String responseHeaderString = buildHeadersString(ctx.res().getHeaderNames(), (h) -> ctx.res().getHeader(h));
         String template;
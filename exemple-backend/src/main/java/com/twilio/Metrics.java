@@ -0,0 +1,199 @@
+package com.twilio;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics registry rendered in the Prometheus text exposition format by {@code /metrics}.
+ * <br><br>
+ * Recording only touches {@link LongAdder}s, which are striped per thread under contention, so the request threads
+ * never share a lock or a single hot counter; the sums are only computed when the endpoint is scraped. Latencies go
+ * into fixed, log-spaced histogram buckets from 0.1ms to 10s. Counters and gauges already kept by other components
+ * (pool, caches, log ring) are registered as suppliers and read at scrape time.
+ */
+public class Metrics {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Upper bounds of the histogram buckets, in seconds; the implicit last bucket is +Inf
+    private static final double[] BUCKET_BOUNDS = {
+        0.0001,
+        0.00025,
+        0.0005,
+        0.001,
+        0.0025,
+        0.005,
+        0.01,
+        0.025,
+        0.05,
+        0.1,
+        0.25,
+        0.5,
+        1,
+        2.5,
+        5,
+        10,
+    };
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    public static final class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(final long nanos) {
+            int i = 0;
+            while (i < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sumNanos.add(nanos);
+        }
+
+        /**
+         * Records the time elapsed since {@code startNanos}, as returned by {@link System#nanoTime()}.
+         */
+        public void observeSince(final long startNanos) {
+            observe(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static final class Family {
+
+        private final String type;
+        private final String help;
+        private final ConcurrentMap<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+    // Registration order, so the output is stable between scrapes
+    private final List<String> names = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the histogram for {@code name} with the given label pairs ({@code "route", "/makeCall", ...}).
+     */
+    public Histogram histogram(final String name, final String help, final String... labels) {
+        return (Histogram) family(name, "histogram", help).series.computeIfAbsent(labels(labels), (l) -> new Histogram());
+    }
+
+    public LongAdder counter(final String name, final String help, final String... labels) {
+        return (LongAdder) family(name, "counter", help).series.computeIfAbsent(labels(labels), (l) -> new LongAdder());
+    }
+
+    public LongAdder gauge(final String name, final String help, final String... labels) {
+        return (LongAdder) family(name, "gauge", help).series.computeIfAbsent(labels(labels), (l) -> new LongAdder());
+    }
+
+    /**
+     * Registers a counter or gauge whose value is read from {@code value} at scrape time.
+     */
+    public void register(final String name, final String type, final String help, final LongSupplier value, final String... labels) {
+        family(name, type, help).series.put(labels(labels), value);
+    }
+
+    public String scrape() {
+        final StringBuilder sb = new StringBuilder(4096);
+        for (String name : names) {
+            final Family family = families.get(name);
+            sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                final String labels = series.getKey();
+                final Object value = series.getValue();
+                if (value instanceof Histogram) {
+                    appendHistogram(sb, name, labels, (Histogram) value);
+                } else if (value instanceof LongAdder) {
+                    appendSample(sb, name, labels, Long.toString(((LongAdder) value).sum()));
+                } else {
+                    appendSample(sb, name, labels, Long.toString(((LongSupplier) value).getAsLong()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private Family family(final String name, final String type, final String help) {
+        Family family = families.get(name);
+        if (family != null) {
+            return family;
+        }
+        synchronized (names) {
+            family = families.get(name);
+            if (family == null) {
+                family = new Family(type, help);
+                families.put(name, family);
+                names.add(name);
+            }
+            return family;
+        }
+    }
+
+    private static void appendHistogram(final StringBuilder sb, final String name, final String labels, final Histogram histogram) {
+        final String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < histogram.buckets.length; i++) {
+            cumulative += histogram.buckets[i].sum();
+            final String le = i < BUCKET_BOUNDS.length ? Double.toString(BUCKET_BOUNDS[i]) : "+Inf";
+            appendSample(sb, name + "_bucket", prefix + "le=\"" + le + "\"", Long.toString(cumulative));
+        }
+        appendSample(sb, name + "_sum", labels, Double.toString(histogram.sumNanos.sum() / 1e9));
+        appendSample(sb, name + "_count", labels, Long.toString(cumulative));
+    }
+
+    private static void appendSample(final StringBuilder sb, final String name, final String labels, final String value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String labels(final String... pairs) {
+        if (pairs.length == 0) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(pairs[i]).append("=\"");
+            final String value = pairs[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+}
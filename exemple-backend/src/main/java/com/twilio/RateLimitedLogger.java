@@ -0,0 +1,178 @@
+package com.twilio;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+/**
+ * Leveled SLF4J logger that writes at most {@code maxPerSecond} lines per message template and second.
+ * <br><br>
+ * Lines over the limit are counted and reported with the next line written for the same template, so a request
+ * burst costs one counter increment per call instead of a console write. Disabled levels return before any
+ * formatting or rate accounting happens.
+ * <br><br>
+ * Lines within the limit are queued and passed to the logger by a background writer. They are too sparse to keep
+ * the logging backend warm, and a cold logger call costs a request far more than the queue offer; when the queue
+ * is full the line is counted as suppressed.
+ */
+public class RateLimitedLogger {
+
+    static final int DEFAULT_MAX_PER_SECOND = 10;
+
+    private static final int REDACTED_PREFIX_LENGTH = 8;
+    private static final int QUEUE_CAPACITY = 1024;
+    // Log lines are not latency sensitive, so the writer polls rather than being woken by every request
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final class Line {
+
+        private final Level level;
+        private final String template;
+        private final Object[] args;
+        private final long suppressed;
+
+        Line(final Level level, final String template, final Object[] args, final long suppressed) {
+            this.level = level;
+            this.template = template;
+            this.args = args;
+            this.suppressed = suppressed;
+        }
+    }
+
+    private static final class Window {
+
+        // Second in the high half, lines written in it in the low half, so a new second needs no lock
+        private final AtomicLong state = new AtomicLong();
+        private final LongAdder suppressed = new LongAdder();
+    }
+
+    private final Logger logger;
+    private final int maxPerSecond;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+    private final BlockingQueue<Line> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    public RateLimitedLogger(final Logger logger, final int maxPerSecond) {
+        this.logger = logger;
+        this.maxPerSecond = maxPerSecond;
+
+        Thread writer = new Thread(this::drain, "RateLimitedLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+        // Write what is still queued on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::write, "RateLimitedLogFlush"));
+    }
+
+    /**
+     * Tunables: {@code LOG_RATE_LIMIT_PER_SECOND} (0 disables the limit).
+     */
+    public static RateLimitedLogger fromSystemProperties(final Class<?> owner) {
+        return new RateLimitedLogger(
+            LoggerFactory.getLogger(owner),
+            Integer.getInteger("LOG_RATE_LIMIT_PER_SECOND", DEFAULT_MAX_PER_SECOND)
+        );
+    }
+
+    public void debug(final String template, final Object... args) {
+        if (logger.isDebugEnabled() && acquire(template)) {
+            enqueue(Level.DEBUG, template, args);
+        }
+    }
+
+    public void info(final String template, final Object... args) {
+        if (logger.isInfoEnabled() && acquire(template)) {
+            enqueue(Level.INFO, template, args);
+        }
+    }
+
+    public void warn(final String template, final Object... args) {
+        if (logger.isWarnEnabled() && acquire(template)) {
+            enqueue(Level.WARN, template, args);
+        }
+    }
+
+    /**
+     * Keeps only the first few characters of a secret (tokens, signatures) so log lines can still be correlated.
+     */
+    public static String redact(final String secret) {
+        if (secret == null) {
+            return null;
+        }
+        if (secret.length() <= REDACTED_PREFIX_LENGTH) {
+            return "***";
+        }
+        return secret.substring(0, REDACTED_PREFIX_LENGTH) + "***(" + secret.length() + " chars)";
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    private boolean acquire(final String template) {
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+
+        final Window window = windows.computeIfAbsent(template, (t) -> new Window());
+        final int second = (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long current;
+        long count;
+        do {
+            current = window.state.get();
+            count = (int) (current >>> 32) == second ? current & 0xFFFFFFFFL : 0;
+            if (count >= maxPerSecond) {
+                window.suppressed.increment();
+                suppressed.increment();
+                return false;
+            }
+        } while (!window.state.compareAndSet(current, ((long) second << 32) | (count + 1)));
+        return true;
+    }
+
+    private void enqueue(final Level level, final String template, final Object[] args) {
+        final Window window = windows.get(template);
+        final long skipped = window == null ? 0 : window.suppressed.sumThenReset();
+        if (!queue.offer(new Line(level, template, args, skipped))) {
+            // Reported with the next line that makes it into the queue
+            if (window != null) {
+                window.suppressed.add(skipped + 1);
+            }
+            suppressed.increment();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            write();
+            LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+        }
+    }
+
+    private void write() {
+        Line line;
+        while ((line = queue.poll()) != null) {
+            final String template = line.suppressed == 0
+                ? line.template
+                : line.template + " (" + line.suppressed + " similar lines suppressed)";
+            switch (line.level) {
+                case DEBUG:
+                    logger.debug(template, line.args);
+                    break;
+                case INFO:
+                    logger.info(template, line.args);
+                    break;
+                default:
+                    logger.warn(template, line.args);
+                    break;
+            }
+        }
+    }
+}
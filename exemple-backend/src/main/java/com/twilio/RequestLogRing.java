@@ -0,0 +1,171 @@
+package com.twilio;
+
+import io.javalin.http.Context;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+
+/**
+ * Fixed-size ring of preallocated request log slots, filled by the request threads and drained by a single
+ * background writer.
+ * <br><br>
+ * Request threads only copy a handful of references into a claimed slot; formatting and the actual logger call
+ * happen on the writer thread. When the writer falls behind and the ring is full, entries are dropped and counted
+ * rather than blocking the request.
+ */
+public class RequestLogRing {
+
+    private static final class Slot {
+
+        // Sequence of the request stored in this slot, published last so the writer sees a complete slot
+        private volatile long sequence = -1L;
+        // Set when filling the slot failed, the writer then skips it
+        private boolean skip;
+        private long timestampMillis;
+        private String method;
+        private String path;
+        private String protocol;
+        private int status;
+        private String body;
+        private final String[] requestHeaders;
+        private final String[] responseHeaders;
+
+        Slot(int headerCount) {
+            requestHeaders = new String[headerCount];
+            responseHeaders = new String[headerCount];
+        }
+    }
+
+    private final Logger logger;
+    private final String[] headerAllowList;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed = 0L;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public RequestLogRing(final Logger logger, final int capacity, final String[] headerAllowList) {
+        this.logger = logger;
+        this.headerAllowList = headerAllowList;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(headerAllowList.length);
+        }
+        this.mask = size - 1;
+
+        Thread writer = new Thread(this::drain, "RequestLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Copies the request metadata into the next free slot. Returns false when the ring is full.
+     */
+    public boolean offer(final Context ctx, final boolean withBody) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) (sequence & mask)];
+        // The slot is always published, otherwise the writer would wait for it forever
+        slot.skip = true;
+        try {
+            slot.timestampMillis = System.currentTimeMillis();
+            slot.method = ctx.method().name();
+            slot.path = ctx.path();
+            slot.protocol = ctx.protocol();
+            slot.status = ctx.status().getCode();
+            slot.body = withBody ? ctx.body() : null;
+            for (int i = 0; i < headerAllowList.length; i++) {
+                slot.requestHeaders[i] = ctx.header(headerAllowList[i]);
+                slot.responseHeaders[i] = ctx.res().getHeader(headerAllowList[i]);
+            }
+            slot.skip = false;
+        } finally {
+            slot.sequence = sequence;
+        }
+        return true;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        while (true) {
+            long next = consumed;
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence != next) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+
+            if (slot.skip) {
+                dropped.increment();
+            } else {
+                try {
+                    write(slot);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to write request log entry", e);
+                }
+            }
+            slot.body = null;
+            consumed = next + 1;
+        }
+    }
+
+    private void write(final Slot slot) {
+        line.setLength(0);
+        line
+            .append("ts=")
+            .append(slot.timestampMillis)
+            .append(" method=")
+            .append(slot.method)
+            .append(" path=")
+            .append(slot.path)
+            .append(" protocol=")
+            .append(slot.protocol)
+            .append(" status=")
+            .append(slot.status);
+        appendHeaders(" req_headers={", slot.requestHeaders);
+        appendHeaders(" res_headers={", slot.responseHeaders);
+        if (slot.body != null) {
+            line.append(" body=").append(slot.body);
+        }
+        logger.info(line.toString());
+        written.increment();
+    }
+
+    private void appendHeaders(final String prefix, final String[] values) {
+        line.append(prefix);
+        boolean first = true;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            if (!first) {
+                line.append(", ");
+            }
+            line.append(headerAllowList[i]).append(':').append(values[i]);
+            first = false;
+        }
+        line.append('}');
+    }
+}
@@ -0,0 +1,95 @@
+package com.twilio;
+
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Long-lived {@link TwilioRestClient} shared by every request, backed by a pooled HTTP connection manager
+ * so outbound REST calls reuse warm TLS connections instead of building a new client per request.
+ */
+public class TwilioRestClientPool {
+
+    static final int DEFAULT_POOL_SIZE = 50;
+    static final long DEFAULT_KEEP_ALIVE_MS = 30_000L;
+    static final long DEFAULT_IDLE_EVICTION_MS = 60_000L;
+
+    private final TwilioRestClient client;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TwilioRestClientPool(
+        final String username,
+        final String password,
+        final String accountSid,
+        final int poolSize,
+        final long keepAliveMillis,
+        final long idleEvictionMillis
+    ) {
+        // No TTL: how long a connection is reused is up to the keep-alive strategy, idle ones are evicted below
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(poolSize)
+            // All traffic goes to api.twilio.com, so a single route may use the whole pool
+            .setMaxConnPerRoute(poolSize)
+            .build();
+
+        TimeValue keepAlive = TimeValue.ofMilliseconds(keepAliveMillis);
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMillis));
+
+        client = new TwilioRestClient.Builder(username, password)
+            .accountSid(accountSid)
+            .httpClient(new NetworkHttpClient(httpClientBuilder))
+            .build();
+    }
+
+    /**
+     * Builds the pool from the credentials loaded by {@code Webapp.dotenv()}.
+     * <br><br>
+     * Tunables: {@code TWILIO_POOL_SIZE}, {@code TWILIO_POOL_KEEP_ALIVE_MS} and {@code TWILIO_POOL_IDLE_EVICTION_MS}.
+     */
+    public static TwilioRestClientPool fromSystemProperties() {
+        return new TwilioRestClientPool(
+            System.getProperty("API_KEY"),
+            System.getProperty("API_SECRET"),
+            System.getProperty("ACCOUNT_SID"),
+            Integer.getInteger("TWILIO_POOL_SIZE", DEFAULT_POOL_SIZE),
+            Long.getLong("TWILIO_POOL_KEEP_ALIVE_MS", DEFAULT_KEEP_ALIVE_MS),
+            Long.getLong("TWILIO_POOL_IDLE_EVICTION_MS", DEFAULT_IDLE_EVICTION_MS)
+        );
+    }
+
+    /**
+     * Returns the shared client. A hit is recorded when an idle pooled connection is available for
+     * the upcoming request, a miss when the request will have to open (and handshake) a new one.
+     */
+    public TwilioRestClient acquire() {
+        if (connectionManager.getTotalStats().getAvailable() > 0) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return client;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public PoolStats getConnectionStats() {
+        return connectionManager.getTotalStats();
+    }
+}
@@ -0,0 +1,207 @@
+package com.twilio;
+
+import com.twilio.twiml.VoiceResponse;
+import com.twilio.twiml.voice.Client;
+import com.twilio.twiml.voice.Dial;
+import com.twilio.twiml.voice.Number;
+import com.twilio.twiml.voice.Parameter;
+import com.twilio.twiml.voice.Say;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed TwiML responses for the webhook routes.
+ * <br><br>
+ * Static responses are serialized once at startup. Dynamic {@code <Dial>} responses are rendered once through the
+ * Twilio builders with placeholder values, then split into byte segments; at request time only the escaped
+ * values are spliced in, so the output matches the builder path without rebuilding and serializing it.
+ */
+public class TwimlTemplates {
+
+    static final String WELCOME_TEXT = "Welcome to Twilio";
+    static final String GREETING_TEXT = "Congratulations! You have received your first inbound call! Good bye.";
+    static final String FIRST_CALL_TEXT = "Congratulations! You have made your first call! Good bye.";
+
+    private static final String TO_SLOT = "__TWIML_TO__";
+    private static final String FROM_SLOT = "__TWIML_FROM__";
+
+    private final byte[] welcome;
+    private final byte[] greeting;
+    private final byte[] firstCall;
+    private final Template dialNumber;
+    private final Template dialClient;
+    private final Template dialClientWithoutCallerId;
+    private final Template dialAlice;
+    private final Template dialAliceWithoutCallerId;
+
+    public TwimlTemplates() {
+        welcome = utf8(sayResponse(WELCOME_TEXT).toXml());
+        greeting = utf8(sayResponse(GREETING_TEXT).toXml());
+        firstCall = utf8(sayResponse(FIRST_CALL_TEXT).toXml());
+        dialNumber = Template.compile(dialNumberResponse(TO_SLOT).toXml(), TO_SLOT);
+        dialClient = Template.compile(dialClientResponse(TO_SLOT, FROM_SLOT).toXml(), TO_SLOT, FROM_SLOT);
+        dialClientWithoutCallerId = Template.compile(dialClientResponse(TO_SLOT, null).toXml(), TO_SLOT);
+        dialAlice = Template.compile(dialAliceResponse(FROM_SLOT).toXml(), FROM_SLOT);
+        dialAliceWithoutCallerId = Template.compile(dialAliceResponse(null).toXml());
+    }
+
+    public byte[] welcome() {
+        return welcome;
+    }
+
+    public byte[] greeting() {
+        return greeting;
+    }
+
+    public byte[] firstCall() {
+        return firstCall;
+    }
+
+    public byte[] dialNumber(final String to) {
+        return dialNumber.render(to);
+    }
+
+    public byte[] dialClient(final String to, final String from) {
+        return from != null ? dialClient.render(to, from) : dialClientWithoutCallerId.render(to);
+    }
+
+    public byte[] dialAlice(final String from) {
+        return from != null ? dialAlice.render(from) : dialAliceWithoutCallerId.render();
+    }
+
+    // Reference builder graphs. Only used at startup to compile the templates (and by the benchmarks).
+
+    static VoiceResponse sayResponse(final String text) {
+        Say say = new Say.Builder(text).build();
+        return new VoiceResponse.Builder().say(say).build();
+    }
+
+    static VoiceResponse dialNumberResponse(final String to) {
+        Number number = new Number.Builder(to).build();
+        Dial dial = new Dial.Builder().callerId(Webapp.CALLER_NUMBER).number(number).build();
+        return new VoiceResponse.Builder().dial(dial).build();
+    }
+
+    static VoiceResponse dialClientResponse(final String to, final String from) {
+        Parameter parameter = new Parameter.Builder().name("FirstName").value("Jane").build();
+        Parameter parameter2 = new Parameter.Builder().name("CapacitorTwilioCallerName").value("Magic Doe").build();
+        Client client = new Client.Builder(to).parameter(parameter).parameter(parameter2).build();
+        Dial dial = new Dial.Builder().callerId(from).timeout(30).client(client).build();
+        return new VoiceResponse.Builder().dial(dial).build();
+    }
+
+    static VoiceResponse dialAliceResponse(final String from) {
+        Client client = new Client.Builder("alice").build();
+        Dial dial = new Dial.Builder().callerId(from).timeout(30).client(client).build();
+        return new VoiceResponse.Builder().dial(dial).build();
+    }
+
+    private static byte[] utf8(final String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Pre-split TwiML document: {@code segments[i]} is followed by the value for {@code slots[i]}.
+     */
+    static final class Template {
+
+        private final byte[][] segments;
+        private final int[] slots;
+        private final int fixedLength;
+
+        private Template(final byte[][] segments, final int[] slots) {
+            this.segments = segments;
+            this.slots = slots;
+            int length = 0;
+            for (byte[] segment : segments) {
+                length += segment.length;
+            }
+            this.fixedLength = length;
+        }
+
+        static Template compile(final String xml, final String... placeholders) {
+            List<byte[]> segments = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            int from = 0;
+            while (true) {
+                int next = -1;
+                int slot = -1;
+                for (int i = 0; i < placeholders.length; i++) {
+                    int index = xml.indexOf(placeholders[i], from);
+                    if (index >= 0 && (next < 0 || index < next)) {
+                        next = index;
+                        slot = i;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                segments.add(utf8(xml.substring(from, next)));
+                slots.add(slot);
+                from = next + placeholders[slot].length();
+            }
+            segments.add(utf8(xml.substring(from)));
+
+            int[] slotArray = new int[slots.size()];
+            for (int i = 0; i < slotArray.length; i++) {
+                slotArray[i] = slots.get(i);
+            }
+            return new Template(segments.toArray(new byte[0][]), slotArray);
+        }
+
+        byte[] render(final String... values) {
+            if (slots.length == 0) {
+                return segments[0];
+            }
+
+            byte[][] escaped = new byte[slots.length][];
+            int length = fixedLength;
+            for (int i = 0; i < slots.length; i++) {
+                escaped[i] = escape(values[slots[i]]);
+                length += escaped[i].length;
+            }
+
+            byte[] out = new byte[length];
+            int position = 0;
+            for (int i = 0; i < slots.length; i++) {
+                System.arraycopy(segments[i], 0, out, position, segments[i].length);
+                position += segments[i].length;
+                System.arraycopy(escaped[i], 0, out, position, escaped[i].length);
+                position += escaped[i].length;
+            }
+            byte[] last = segments[slots.length];
+            System.arraycopy(last, 0, out, position, last.length);
+            return out;
+        }
+
+        static byte[] escape(final String value) {
+            StringBuilder sb = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String entity;
+                if (c == '&') {
+                    entity = "&amp;";
+                } else if (c == '<') {
+                    entity = "&lt;";
+                } else if (c == '>') {
+                    entity = "&gt;";
+                } else if (c == '"') {
+                    entity = "&quot;";
+                } else {
+                    entity = null;
+                }
+
+                if (entity != null) {
+                    if (sb == null) {
+                        sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+                    }
+                    sb.append(entity);
+                } else if (sb != null) {
+                    sb.append(c);
+                }
+            }
+            return utf8(sb != null ? sb.toString() : value);
+        }
+    }
+}
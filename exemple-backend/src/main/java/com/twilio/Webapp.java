@@ -2,25 +2,21 @@ package com.twilio;
 
 import com.twilio.http.HttpMethod;
 import com.twilio.http.TwilioRestClient;
-import com.twilio.jwt.accesstoken.AccessToken;
-import com.twilio.jwt.accesstoken.VoiceGrant;
 import com.twilio.rest.api.v2010.account.Call;
-import com.twilio.twiml.TwiMLException;
-import com.twilio.twiml.VoiceResponse;
-import com.twilio.twiml.voice.*;
-import com.twilio.twiml.voice.Client;
-import com.twilio.twiml.voice.Number;
 import com.twilio.type.*;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import java.io.File;
 import java.io.FileInputStream;
 import java.lang.Character;
 import java.net.URI;
-import java.nio.charset.Charset;
 import java.util.*;
-import org.apache.http.NameValuePair;
-import org.apache.http.client.utils.URLEncodedUtils;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Webapp {
 
@@ -54,12 +50,45 @@ public class Webapp {
     // Use a valid Twilio number by adding to your account via https://www.twilio.com/console/phone-numbers/verified
     static final String CALLER_NUMBER = "+351 939148203";
 
+    private static RateLimitedLogger log;
+    private static TwilioRestClientPool restClientPool;
+    private static AccessTokenCache accessTokenCache;
+    private static TwimlTemplates twimlTemplates;
+    private static CallPlacementExecutor callPlacementExecutor;
+    private static CallPlacementExecutor batchCallExecutor;
+    private static CallRateLimiter callRateLimiter;
+
+    private static final String REQUEST_START = "requestStartNanos";
+    private static Metrics metrics;
+    private static LongAdder inFlightRequests;
+    // Request duration histograms by route, indexed by the ordinal of the request method
+    private static final ConcurrentMap<String, Metrics.Histogram[]> requestDurations = new ConcurrentHashMap<>();
+    private static Metrics.Histogram twimlRenderTime;
+    private static Metrics.Histogram callCreateTime;
+    private static LongAdder callCreateErrors;
+
     public static void main(String[] args) throws Exception {
         // Load the .env file into environment
         dotenv();
 
-        // Create Javalin app
-        Javalin app = Javalin.create().start(4567);
+        // Build the shared clients, caches and templates used by the handlers
+        init();
+
+        // Create Javalin app, optionally serving requests on virtual threads (JDK 21+)
+        Javalin app = Javalin.create((config) -> {
+            config.useVirtualThreads = Boolean.getBoolean("USE_VIRTUAL_THREADS");
+        }).start(4567);
+
+        // Call placement is rejected rather than queued once the concurrency limit is reached
+        app.exception(RejectedExecutionException.class, (e, ctx) -> {
+            ctx.status(503).result("Error: " + e.getMessage());
+        });
+
+        // Request latency and in-flight requests, recorded around every handler
+        app.before((ctx) -> {
+            ctx.attribute(REQUEST_START, System.nanoTime());
+            inFlightRequests.increment();
+        });
 
         // Add CORS headers manually
         app.before((ctx) -> {
@@ -77,6 +106,22 @@ public class Webapp {
             LoggingFilter.logRequestResponse(ctx);
         });
 
+        app.after((ctx) -> {
+            inFlightRequests.decrement();
+            final Long start = ctx.attribute(REQUEST_START);
+            if (start != null) {
+                final String route = ctx.status().getCode() == 404 ? "unmatched" : ctx.endpointHandlerPath();
+                requestDuration(ctx.method(), route).observeSince(start);
+            }
+        });
+
+        /**
+         * Exposes the server metrics in the Prometheus text format.
+         */
+        app.get("/metrics", (ctx) -> {
+            ctx.contentType(Metrics.CONTENT_TYPE).result(metrics.scrape());
+        });
+
         app.get("/", (ctx) -> {
             ctx.result(welcome());
         });
@@ -114,29 +159,13 @@ public class Webapp {
          */
         app.post("/accessToken/ios", (ctx) -> {
             // Read the identity param provided
-            String identity = null;
-            List<NameValuePair> pairs = URLEncodedUtils.parse(ctx.body(), Charset.defaultCharset());
-            Map<String, String> params = toMap(pairs);
-            try {
-                identity = params.get("identity");
-            } catch (Exception e) {
-                ctx.result("Error: " + e.getMessage());
-                return;
-            }
+            final String identity = FormParams.get(ctx.bodyAsBytes(), "identity");
             ctx.result(getAccessToken(identity != null ? identity : IDENTITY, "ios"));
         });
 
         app.post("/accessToken/android", (ctx) -> {
             // Read the identity param provided
-            String identity = null;
-            List<NameValuePair> pairs = URLEncodedUtils.parse(ctx.body(), Charset.defaultCharset());
-            Map<String, String> params = toMap(pairs);
-            try {
-                identity = params.get("identity");
-            } catch (Exception e) {
-                ctx.result("Error: " + e.getMessage());
-                return;
-            }
+            final String identity = FormParams.get(ctx.bodyAsBytes(), "identity");
             ctx.result(getAccessToken(identity != null ? identity : IDENTITY, "android"));
         });
 
@@ -156,7 +185,7 @@ public class Webapp {
             //            if (from != null && from.startsWith("client:")) {
             //                from = from.replaceFirst("client:", "");
             //            }
-            System.out.printf("From: %s, To: %s%n", from, to);
+            log.debug("From: {}, To: {}", from, to);
             ctx.result(call(to, from));
         });
 
@@ -172,39 +201,19 @@ public class Webapp {
          * @returns The TwiMl used to respond to an outgoing call
          */
         app.post("/makeCall", (ctx) -> {
-            String to = "";
-            String from = "";
-            List<NameValuePair> pairs = URLEncodedUtils.parse(ctx.body(), Charset.defaultCharset());
-            Map<String, String> params = toMap(pairs);
-            try {
-                to = params.get("to");
-                from = params.get("From");
-            } catch (Exception e) {
-                ctx.result("Error: " + e.getMessage());
-                return;
-            }
+            final String[] params = FormParams.get(ctx.bodyAsBytes(), "to", "From");
+            final String to = params[0];
+            final String from = params[1];
             //            if (from.startsWith("client:")) {
             //                from = from.replaceFirst("client:", "");
             //            }
-            System.out.printf("From: %s, To: %s%n", from, to);
+            log.debug("From: {}, To: {}", from, to);
             ctx.result(call(to, from));
         });
 
         app.post("/callAlice", (ctx) -> {
-            String from = "";
-            List<NameValuePair> pairs = URLEncodedUtils.parse(ctx.body(), Charset.defaultCharset());
-            Map<String, String> params = toMap(pairs);
-            try {
-                from = params.get("From");
-            } catch (Exception e) {
-                ctx.result("Error: " + e.getMessage());
-                return;
-            }
-
-            Client client = new Client.Builder("alice").build();
-            Dial dial = new Dial.Builder().callerId(from).timeout(30).client(client).build();
-            VoiceResponse voiceResponse = new VoiceResponse.Builder().dial(dial).build();
-            ctx.result(voiceResponse.toXml());
+            final String from = FormParams.get(ctx.bodyAsBytes(), "From");
+            ctx.result(twimlTemplates.dialAlice(from));
         });
 
         /**
@@ -216,8 +225,8 @@ public class Webapp {
             final String to = ctx.queryParam("to");
             // The fully qualified URL that should be consulted by Twilio when the call connects.
             URI uri = URI.create(ctx.scheme() + "://" + ctx.host() + "/incoming");
-            System.out.println(uri.toURL().toString());
-            ctx.result(callUsingRestClient(to, uri));
+            log.debug("Placing call to {} with callback {}", to, uri);
+            placeCall(ctx, to, uri);
         });
 
         /**
@@ -226,19 +235,24 @@ public class Webapp {
          * @returns The CallSid
          */
         app.post("/placeCall", (ctx) -> {
-            String to = "";
-            List<NameValuePair> pairs = URLEncodedUtils.parse(ctx.body(), Charset.defaultCharset());
-            Map<String, String> params = toMap(pairs);
-            try {
-                to = params.get("to");
-            } catch (Exception e) {
-                ctx.result("Error: " + e.getMessage());
-                return;
-            }
+            final String to = FormParams.get(ctx.bodyAsBytes(), "to");
             // The fully qualified URL that should be consulted by Twilio when the call connects.
             URI uri = URI.create(ctx.scheme() + "://" + ctx.host() + "/incoming");
-            System.out.println(uri.toURL().toString());
-            ctx.result(callUsingRestClient(to, uri));
+            log.debug("Placing call to {} with callback {}", to, uri);
+            placeCall(ctx, to, uri);
+        });
+
+        /**
+         * Makes one call per target using the Twilio REST API. Targets are passed as a comma or
+         * newline separated {@code to} parameter.
+         *
+         * @returns One NDJSON line per target with its CallSid or error, in completion order
+         */
+        app.post("/placeCalls", (ctx) -> {
+            final String targets = FormParams.get(ctx.bodyAsBytes(), "to");
+            // The fully qualified URL that should be consulted by Twilio when each call connects.
+            URI uri = URI.create(ctx.scheme() + "://" + ctx.host() + "/incoming");
+            placeCalls(ctx, targets, uri);
         });
 
         /**
@@ -256,100 +270,202 @@ public class Webapp {
         });
     }
 
-    private static String getAccessToken(final String identity, final String platform) {
-        // Create Voice grant
-        VoiceGrant grant = new VoiceGrant();
-        grant.setOutgoingApplicationSid(System.getProperty("APP_SID"));
-        grant.setPushCredentialSid(System.getProperty("PUSH_CREDENTIAL_SID_" + platform.toUpperCase()));
-
-        // Create access token
-        AccessToken token = new AccessToken.Builder(
-            System.getProperty("ACCOUNT_SID"),
-            System.getProperty("API_KEY_SID"),
-            System.getProperty("API_SECRET").getBytes()
-        )
-            .identity(identity)
-            .grant(grant)
-            .ttl(86400)
-            .build();
-        System.out.println(token.toJwt());
-        return token.toJwt();
+    static void init() {
+        // Handler logging goes through SLF4J, rate limited per message
+        log = RateLimitedLogger.fromSystemProperties(Webapp.class);
+
+        // Switch request logging to the asynchronous structured mode if requested
+        LoggingFilter.configure();
+
+        // Shared REST client reused by every /placeCall request
+        restClientPool = TwilioRestClientPool.fromSystemProperties();
+
+        // Signed tokens are reused per identity/platform until close to expiry
+        accessTokenCache = AccessTokenCache.fromSystemProperties();
+
+        // Static TwiML is serialized once, dynamic <Dial> responses are rendered from templates
+        twimlTemplates = new TwimlTemplates();
+
+        // Opt-in: run the blocking REST call off the request thread with a concurrency limit
+        if (Boolean.getBoolean("ASYNC_PLACE_CALL")) {
+            callPlacementExecutor = CallPlacementExecutor.fromSystemProperties();
+        }
+
+        // /placeCalls fans out on its own bounded executor; with TWILIO_CPS set, it and /placeCall share the CPS limit
+        batchCallExecutor = new CallPlacementExecutor(
+            Integer.getInteger("PLACE_CALLS_MAX_CONCURRENCY", CallBatch.DEFAULT_MAX_CONCURRENCY),
+            Boolean.getBoolean("USE_VIRTUAL_THREADS")
+        );
+        callRateLimiter = CallRateLimiter.fromSystemProperties();
+
+        initMetrics();
     }
 
-    private static String call(final String to, final String from) {
-        VoiceResponse voiceResponse;
-        String toXml = null;
+    private static void initMetrics() {
+        metrics = new Metrics();
+        inFlightRequests = metrics.gauge("http_requests_in_flight", "Requests currently being handled");
+        twimlRenderTime = metrics.histogram("twiml_render_duration_seconds", "Time to render the /makeCall TwiML response");
+        callCreateTime = metrics.histogram("twilio_call_create_duration_seconds", "Latency of the Call.create REST request");
+        callCreateErrors = metrics.counter("twilio_call_create_errors_total", "Failed Call.create REST requests");
+
+        for (String platform : new String[] { "ios", "android" }) {
+            metrics.register(
+                "access_token_mints_total",
+                "counter",
+                "Access tokens signed",
+                () -> accessTokenCache.getMints(platform),
+                "platform",
+                platform
+            );
+        }
+        metrics.register("access_token_cache_hits_total", "counter", "Access tokens served from the cache", accessTokenCache::getHits);
+        metrics.register(
+            "access_token_cache_evictions_total",
+            "counter",
+            "Access tokens evicted from the cache",
+            accessTokenCache::getEvictions
+        );
+        metrics.register(
+            "twilio_pool_hits_total",
+            "counter",
+            "REST requests that found an idle pooled connection",
+            restClientPool::getHits
+        );
+        metrics.register("twilio_pool_misses_total", "counter", "REST requests that had to open a connection", restClientPool::getMisses);
+        metrics.register("twilio_pool_leased", "gauge", "Pooled connections in use", () -> restClientPool.getConnectionStats().getLeased());
+        metrics.register(
+            "twilio_pool_available",
+            "gauge",
+            "Idle pooled connections",
+            () -> restClientPool.getConnectionStats().getAvailable()
+        );
+        metrics.register("log_handler_suppressed_total", "counter", "Handler log lines dropped by the rate limit", log::getSuppressed);
+        if (callPlacementExecutor != null) {
+            metrics.register(
+                "place_call_in_flight",
+                "gauge",
+                "Asynchronous /placeCall REST calls in flight",
+                callPlacementExecutor::getInFlight
+            );
+        }
+        final RequestLogRing ring = LoggingFilter.getRing();
+        if (ring != null) {
+            metrics.register("log_ring_written_total", "counter", "Structured request log entries written", ring::getWritten);
+            metrics.register("log_ring_dropped_total", "counter", "Structured request log entries dropped", ring::getDropped);
+        }
+    }
 
-        Parameter parameter = new Parameter.Builder().name("FirstName").value("Jane").build();
+    private static Metrics.Histogram requestDuration(final HandlerType method, final String route) {
+        final Metrics.Histogram[] byMethod = requestDurations.computeIfAbsent(route, (r) ->
+            new Metrics.Histogram[HandlerType.values().length]
+        );
+        Metrics.Histogram histogram = byMethod[method.ordinal()];
+        if (histogram == null) {
+            // Racing threads get the same series back from the registry
+            histogram = metrics.histogram(
+                "http_request_duration_seconds",
+                "Request handling time by route",
+                "method",
+                method.name(),
+                "route",
+                route
+            );
+            byMethod[method.ordinal()] = histogram;
+        }
+        return histogram;
+    }
 
-        Parameter parameter2 = new Parameter.Builder().name("CapacitorTwilioCallerName").value("Magic Doe").build();
+    static String getAccessToken(final String identity, final String platform) {
+        final String jwt = accessTokenCache.get(identity, platform);
+        log.debug("Access token for {} on {}: {}", identity, platform, RateLimitedLogger.redact(jwt));
+        return jwt;
+    }
 
+    static byte[] call(final String to, final String from) {
+        final long start = System.nanoTime();
+        final byte[] twiml;
         if (to == null || to.isEmpty()) {
-            Say say = new Say.Builder("Congratulations! You have made your first call! Good bye.").build();
-            voiceResponse = new VoiceResponse.Builder().say(say).build();
+            twiml = twimlTemplates.firstCall();
         } else if (isPhoneNumber(to)) {
-            Number number = new Number.Builder(to).build();
-            Dial dial = new Dial.Builder().callerId(CALLER_NUMBER).number(number).build();
-            voiceResponse = new VoiceResponse.Builder().dial(dial).build();
+            twiml = twimlTemplates.dialNumber(to);
         } else {
-            Client client = new Client.Builder(to).parameter(parameter).parameter(parameter2).build();
-            Dial dial = new Dial.Builder().callerId(from).timeout(30).client(client).build();
-            voiceResponse = new VoiceResponse.Builder().dial(dial).build();
+            twiml = twimlTemplates.dialClient(to, from);
         }
-        try {
-            toXml = voiceResponse.toXml();
-        } catch (TwiMLException e) {
-            e.printStackTrace();
+        twimlRenderTime.observeSince(start);
+        return twiml;
+    }
+
+    private static void placeCall(final Context ctx, final String to, final URI uri) {
+        if (callRateLimiter != null) {
+            // Over the account's CPS limit: tell the client when to retry instead of holding the request
+            final long waitNanos = callRateLimiter.tryAcquire(System.getProperty("ACCOUNT_SID"));
+            if (waitNanos > 0) {
+                final long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1;
+                ctx.status(429).header("Retry-After", String.valueOf(retryAfterSeconds)).result("Error: calls per second limit reached");
+                return;
+            }
         }
-        return toXml;
+        if (callPlacementExecutor == null) {
+            ctx.result(callUsingRestClient(to, uri));
+            return;
+        }
+        ctx.future(() -> callPlacementExecutor.submit(() -> callUsingRestClient(to, uri)).thenAccept(ctx::result));
+    }
+
+    private static void placeCalls(final Context ctx, final String targets, final URI uri) throws Exception {
+        final List<String> to = CallBatch.parseTargets(targets);
+        final int maxTargets = Integer.getInteger("PLACE_CALLS_MAX_TARGETS", CallBatch.DEFAULT_MAX_TARGETS);
+        if (to.isEmpty() || to.size() > maxTargets) {
+            ctx.status(400).result("Error: expected between 1 and " + maxTargets + " targets");
+            return;
+        }
+
+        log.debug("Placing {} calls with callback {}", to.size(), uri);
+        ctx.contentType("application/x-ndjson");
+        final CallBatch batch = new CallBatch(batchCallExecutor, callRateLimiter, System.getProperty("ACCOUNT_SID"), (target) ->
+            callUsingRestClient(target, uri)
+        );
+        batch.run(to, ctx.res().getOutputStream());
     }
 
     private static String callUsingRestClient(final String to, final URI uri) {
-        final TwilioRestClient client = new TwilioRestClient.Builder(System.getProperty("API_KEY"), System.getProperty("API_SECRET"))
-            .accountSid(System.getProperty("ACCOUNT_SID"))
-            .build();
+        final TwilioRestClient client = restClientPool.acquire();
 
+        final com.twilio.type.Client clientEndpoint;
+        final PhoneNumber from;
         if (to == null || to.isEmpty()) {
-            com.twilio.type.Client clientEndpoint = new com.twilio.type.Client("client:" + IDENTITY);
-            PhoneNumber from = new PhoneNumber(CALLER_ID);
-            // Make the call
-            Call call = Call.creator(clientEndpoint, from, uri).setMethod(HttpMethod.GET).create(client);
-            // Print the call SID (a 32 digit hex like CA123..)
-            System.out.println(call.getSid());
-            return call.getSid();
+            clientEndpoint = new com.twilio.type.Client("client:" + IDENTITY);
+            from = new PhoneNumber(CALLER_ID);
         } else if (isNumeric(to)) {
-            com.twilio.type.Client clientEndpoint = new com.twilio.type.Client(to);
-            PhoneNumber from = new PhoneNumber(CALLER_NUMBER);
-            // Make the call
-            Call call = Call.creator(clientEndpoint, from, uri).setMethod(HttpMethod.GET).create(client);
-            // Print the call SID (a 32 digit hex like CA123..)
-            System.out.println(call.getSid());
-            return call.getSid();
+            clientEndpoint = new com.twilio.type.Client(to);
+            from = new PhoneNumber(CALLER_NUMBER);
         } else {
-            com.twilio.type.Client clientEndpoint = new com.twilio.type.Client("client:" + to);
-            PhoneNumber from = new PhoneNumber(CALLER_ID);
-            // Make the call
-            Call call = Call.creator(clientEndpoint, from, uri).setMethod(HttpMethod.GET).create(client);
-            // Print the call SID (a 32 digit hex like CA123..)
-            System.out.println(call.getSid());
-            return call.getSid();
+            clientEndpoint = new com.twilio.type.Client("client:" + to);
+            from = new PhoneNumber(CALLER_ID);
+        }
+
+        // Make the call
+        final long start = System.nanoTime();
+        final Call call;
+        try {
+            call = Call.creator(clientEndpoint, from, uri).setMethod(HttpMethod.GET).create(client);
+        } catch (RuntimeException e) {
+            callCreateErrors.increment();
+            throw e;
+        } finally {
+            callCreateTime.observeSince(start);
         }
+        // Log the call SID (a 32 digit hex like CA123..)
+        log.info("Created call {}", call.getSid());
+        return call.getSid();
     }
 
-    private static String greet() {
-        VoiceResponse voiceResponse;
-        Say say = new Say.Builder("Congratulations! You have received your first inbound call! Good bye.").build();
-        voiceResponse = new VoiceResponse.Builder().say(say).build();
-        System.out.println(voiceResponse.toXml().toString());
-        return voiceResponse.toXml();
+    private static byte[] greet() {
+        return twimlTemplates.greeting();
     }
 
-    private static String welcome() {
-        VoiceResponse voiceResponse;
-        Say say = new Say.Builder("Welcome to Twilio").build();
-        voiceResponse = new VoiceResponse.Builder().say(say).build();
-        System.out.println(voiceResponse.toXml().toString());
-        return voiceResponse.toXml();
+    private static byte[] welcome() {
+        return twimlTemplates.welcome();
     }
 
     private static void dotenv() throws Exception {
@@ -364,17 +480,7 @@ public class Webapp {
         props.entrySet().forEach((p) -> System.setProperty(p.getKey().toString(), p.getValue().toString()));
     }
 
-    private static Map<String, String> toMap(final List<NameValuePair> pairs) {
-        Map<String, String> map = new HashMap<>();
-        for (int i = 0; i < pairs.size(); i++) {
-            NameValuePair pair = pairs.get(i);
-            System.out.println("NameValuePair - name=" + pair.getName() + " value=" + pair.getValue());
-            map.put(pair.getName(), pair.getValue());
-        }
-        return map;
-    }
-
-    private static boolean isPhoneNumber(String s) {
+    static boolean isPhoneNumber(String s) {
         if (s.length() == 1) {
             return isNumeric(s);
         } else if (s.charAt(0) == '+') {
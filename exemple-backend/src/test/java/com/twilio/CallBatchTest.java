@@ -0,0 +1,110 @@
+package com.twilio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CallBatchTest {
+
+    private static final String ACCOUNT_SID = "ACXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX";
+
+    @Test
+    void tryAcquireDoesNotReserve() {
+        final CallRateLimiter limiter = new CallRateLimiter(1, 2);
+        assertEquals(0, limiter.tryAcquire(ACCOUNT_SID));
+        assertEquals(0, limiter.tryAcquire(ACCOUNT_SID));
+        final long wait = limiter.tryAcquire(ACCOUNT_SID);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+        // A rejected attempt took nothing, so the next one waits no longer
+        assertTrue(limiter.tryAcquire(ACCOUNT_SID) <= wait);
+        // Accounts are paced separately
+        assertEquals(0, limiter.tryAcquire("ACYYYYYYYYYYYYYYYYYYYYYYYYYYYYYYYY"));
+    }
+
+    @Test
+    void reserveSpacesCallsByTheInterval() {
+        final CallRateLimiter limiter = new CallRateLimiter(10, 1);
+        assertEquals(0, limiter.reserve(ACCOUNT_SID));
+        final long second = limiter.reserve(ACCOUNT_SID);
+        final long third = limiter.reserve(ACCOUNT_SID);
+        assertTrue(second > TimeUnit.MILLISECONDS.toNanos(50) && second <= TimeUnit.MILLISECONDS.toNanos(100), "second " + second);
+        assertTrue(third - second > TimeUnit.MILLISECONDS.toNanos(90), "third " + third);
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        for (double callsPerSecond : new double[] { 0, -1, Double.NaN }) {
+            try {
+                new CallRateLimiter(callsPerSecond, 1);
+                throw new AssertionError("accepted " + callsPerSecond);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    void writesOneLinePerTargetWithinTheConcurrencyLimit() throws Exception {
+        final CallPlacementExecutor executor = new CallPlacementExecutor(2, false);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CallBatch batch = new CallBatch(executor, null, ACCOUNT_SID, (to) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            if (to.equals("bob")) {
+                throw new IllegalStateException("busy");
+            }
+            return "CA-" + to;
+        });
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batch.run(Arrays.asList("alice", "bob", "carol", "dave", "erin"), out);
+
+        final Set<String> lines = new HashSet<>(Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")));
+        assertEquals(
+            new HashSet<>(
+                Arrays.asList(
+                    "{\"to\":\"alice\",\"sid\":\"CA-alice\"}",
+                    "{\"to\":\"bob\",\"error\":\"busy\"}",
+                    "{\"to\":\"carol\",\"sid\":\"CA-carol\"}",
+                    "{\"to\":\"dave\",\"sid\":\"CA-dave\"}",
+                    "{\"to\":\"erin\",\"sid\":\"CA-erin\"}"
+                )
+            ),
+            lines
+        );
+        assertTrue(maxRunning.get() <= 2, "max running " + maxRunning.get());
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    void startsPacedCallsWhenTheirTokenIsDue() throws Exception {
+        final CallPlacementExecutor executor = new CallPlacementExecutor(5, false);
+        final CallRateLimiter limiter = new CallRateLimiter(20, 1);
+        final long start = System.nanoTime();
+        final long[] startedAt = new long[3];
+        final CallBatch batch = new CallBatch(executor, limiter, ACCOUNT_SID, (to) -> {
+            startedAt[Integer.parseInt(to)] = System.nanoTime() - start;
+            return "CA" + to;
+        });
+
+        batch.run(Arrays.asList("0", "1", "2"), new ByteArrayOutputStream());
+
+        // 20 CPS: one call every 50 ms
+        assertTrue(startedAt[1] >= TimeUnit.MILLISECONDS.toNanos(40), "second started at " + startedAt[1]);
+        assertTrue(startedAt[2] >= TimeUnit.MILLISECONDS.toNanos(90), "third started at " + startedAt[2]);
+    }
+}
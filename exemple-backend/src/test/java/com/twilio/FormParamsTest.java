@@ -0,0 +1,66 @@
+package com.twilio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class FormParamsTest {
+
+    private static String get(final String body, final String key) {
+        return FormParams.get(body.getBytes(StandardCharsets.UTF_8), key);
+    }
+
+    @Test
+    void decodesPercentEscapesAndPlus() {
+        assertEquals("+351 939", get("To=%2B351+939", "To"));
+        assertEquals("client:alice", get("From=client%3aalice", "From"));
+        assertEquals("\u00e9", get("name=%C3%A9", "name"));
+    }
+
+    @Test
+    void keepsMalformedEscapes() {
+        assertEquals("%zz", get("a=%zz", "a"));
+        assertEquals("100%", get("a=100%", "a"));
+        assertEquals("%4", get("a=%4", "a"));
+        assertEquals("%g1 x", get("a=%g1+x", "a"));
+        assertEquals("50%&", get("a=50%25%26", "a"));
+    }
+
+    @Test
+    void lastRepeatedKeyWins() {
+        assertEquals("second", get("to=first&to=second", "to"));
+        assertEquals("", get("to=first&to=", "to"));
+        assertNull(get("to=first&to", "to"));
+    }
+
+    @Test
+    void matchesEncodedKeys() {
+        assertEquals("Bob", get("Caller+Name=Bob", "Caller Name"));
+        assertEquals("Bob", get("Caller%20Name=Bob", "Caller Name"));
+        assertNull(get("CallerName=Bob", "Caller Name"));
+    }
+
+    @Test
+    void returnsNullForAbsentOrBareKeys() {
+        assertNull(get("", "to"));
+        assertNull(get("from=alice", "to"));
+        assertNull(get("to", "to"));
+        assertNull(get("tomorrow=1&t=2", "to"));
+        assertEquals("", get("to=", "to"));
+    }
+
+    @Test
+    void skipsEmptyPairs() {
+        assertEquals("alice", get("&&to=alice&", "to"));
+        assertEquals("=x", get("to==x", "to"));
+    }
+
+    @Test
+    void readsSeveralKeysInOnePass() {
+        final byte[] body = "AccountSid=AC1&From=client%3Abob&To=alice&CallSid=CA1".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(new String[] { "alice", "client:bob", null }, FormParams.get(body, "To", "From", "Missing"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.twilio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+import jakarta.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+class RequestLogRingTest {
+
+    private static final String[] HEADERS = { "Content-Type", "X-Twilio-Signature" };
+
+    // Lines passed to Logger.info, optionally holding the writer thread until released
+    private static final class CapturingLogger {
+
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+
+        CapturingLogger(final boolean blocked) {
+            release = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        Logger logger() {
+            return (Logger) Proxy.newProxyInstance(
+                Logger.class.getClassLoader(),
+                new Class<?>[] { Logger.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("info") && args.length == 1 && args[0] instanceof String) {
+                        release.await();
+                        lines.add((String) args[0]);
+                    }
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                }
+            );
+        }
+    }
+
+    private static Context request(final String path, final String body) {
+        final HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+            HttpServletResponse.class.getClassLoader(),
+            new Class<?>[] { HttpServletResponse.class },
+            (proxy, method, args) -> method.getName().equals("getHeader") && "Content-Type".equals(args[0]) ? "text/xml" : null
+        );
+        return (Context) Proxy.newProxyInstance(
+            Context.class.getClassLoader(),
+            new Class<?>[] { Context.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "method":
+                        return HandlerType.POST;
+                    case "path":
+                        return path;
+                    case "protocol":
+                        return "HTTP/1.1";
+                    case "status":
+                        return HttpStatus.OK;
+                    case "body":
+                        if (body == null) {
+                            throw new IllegalStateException("body already consumed");
+                        }
+                        return body;
+                    case "header":
+                        return "X-Twilio-Signature".equals(args[0]) ? "sig" : null;
+                    case "res":
+                        return response;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void writesEntriesInOrderAcrossWraparound() throws Exception {
+        final CapturingLogger log = new CapturingLogger(false);
+        final RequestLogRing ring = new RequestLogRing(log.logger(), 4, HEADERS);
+
+        for (int i = 0; i < 10; i++) {
+            final String path = "/call/" + i;
+            await(() -> ring.offer(request(path, "to=alice"), true));
+        }
+        await(() -> ring.getWritten() == 10);
+
+        assertEquals(10, log.lines.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(log.lines.get(i).contains(" path=/call/" + i + " "), log.lines.get(i));
+        }
+        final String line = log.lines.get(0);
+        assertTrue(line.contains(" method=POST path=/call/0 protocol=HTTP/1.1 status=200 "), line);
+        assertTrue(line.contains(" req_headers={X-Twilio-Signature:sig}"), line);
+        assertTrue(line.contains(" res_headers={Content-Type:text/xml}"), line);
+        assertTrue(line.endsWith(" body=to=alice"), line);
+    }
+
+    @Test
+    void dropsEntriesWhenFull() throws Exception {
+        final CapturingLogger log = new CapturingLogger(true);
+        final RequestLogRing ring = new RequestLogRing(log.logger(), 4, HEADERS);
+
+        // The writer holds on to the first entry, so four offers fill the ring
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(request("/" + i, null), false));
+        }
+        assertFalse(ring.offer(request("/dropped", null), false));
+        assertFalse(ring.offer(request("/dropped", null), false));
+        assertEquals(2, ring.getDropped());
+
+        log.release.countDown();
+        await(() -> ring.getWritten() == 4);
+        assertTrue(ring.offer(request("/4", null), false));
+        await(() -> ring.getWritten() == 5);
+        assertEquals("ts=", log.lines.get(4).substring(0, 3));
+        assertTrue(log.lines.get(4).contains(" path=/4 "));
+    }
+
+    @Test
+    void skipsSlotWhoseRequestCouldNotBeRead() throws Exception {
+        final CapturingLogger log = new CapturingLogger(false);
+        final RequestLogRing ring = new RequestLogRing(log.logger(), 4, HEADERS);
+
+        assertTrue(ring.offer(request("/before", "a=1"), true));
+        assertThrows(IllegalStateException.class, () -> ring.offer(request("/broken", null), true));
+        assertTrue(ring.offer(request("/after", "a=2"), true));
+
+        await(() -> ring.getWritten() == 2);
+        assertEquals(1, ring.getDropped());
+        assertTrue(log.lines.get(0).contains(" path=/before "));
+        assertTrue(log.lines.get(1).contains(" path=/after "));
+    }
+}
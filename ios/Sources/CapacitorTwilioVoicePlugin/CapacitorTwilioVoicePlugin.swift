@@ -42,6 +42,13 @@ public class CapacitorTwilioVoicePlugin: CAPPlugin, CAPBridgedPlugin, PushKitEve
         CAPPluginMethod(name: "endCall", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "muteCall", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "setSpeaker", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "holdCall", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "swapCalls", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "setCallQualityMonitoring", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "setEventCoalescing", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "getEventStats", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "getCallHistory", returnType: CAPPluginReturnPromise),
+        CAPPluginMethod(name: "getCallTimings", returnType: CAPPluginReturnPromise),
 
         CAPPluginMethod(name: "getCallStatus", returnType: CAPPluginReturnPromise),
         CAPPluginMethod(name: "checkMicrophonePermission", returnType: CAPPluginReturnPromise),
@@ -559,6 +566,34 @@ public class CapacitorTwilioVoicePlugin: CAPPlugin, CAPBridgedPlugin, PushKitEve
         call.resolve(["success": true])
     }
 
+    @objc func holdCall(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func swapCalls(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func setCallQualityMonitoring(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func setEventCoalescing(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func getEventStats(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func getCallHistory(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
+    @objc func getCallTimings(_ call: CAPPluginCall) {
+        call.unimplemented("Not implemented on iOS.")
+    }
+
     @objc func getCallStatus(_ call: CAPPluginCall) {
         let activeCall = getActiveCall()
         let hasActiveCall = activeCall != nil
@@ -60,6 +60,82 @@ export interface CallInvite {
   customParams: Record<string, string>;
 }
 
+/**
+ * Call quality aggregated over a number of stats samples.
+ *
+ * Used by the `callQualitySample` event, for the samples taken since the previous event, and by
+ * the `callDisconnected` event, for the whole call.
+ */
+export interface CallQualitySummary {
+  /** Number of stats samples aggregated */
+  samples: number;
+  /** Average jitter of the received audio in milliseconds */
+  averageJitterMs: number;
+  /** Highest jitter of the received audio in milliseconds */
+  maxJitterMs: number;
+  /** Average round trip time in milliseconds */
+  averageRttMs: number;
+  /** Highest round trip time in milliseconds */
+  maxRttMs: number;
+  /** Percentage of received audio packets that were lost */
+  packetLossPercent: number;
+  /** Average Mean Opinion Score estimate, from 1 (bad) to 4.5 (excellent) */
+  averageMos: number;
+  /** Lowest Mean Opinion Score estimate */
+  minMos: number;
+}
+
+/**
+ * A call from the on-device call history.
+ *
+ * Timestamps are in milliseconds since the epoch.
+ */
+export interface CallRecord {
+  /** Twilio CallSid of the call, if it got one */
+  callSid?: string;
+  /** Whether the call was received or placed */
+  direction: 'incoming' | 'outgoing';
+  /** Caller of an incoming call, or callee of an outgoing call */
+  peer?: string;
+  /** How the call ended */
+  status: 'completed' | 'failed' | 'rejected' | 'missed';
+  /** When the call was placed or the invite was received */
+  startedAt: number;
+  /** When the call connected, if it did */
+  connectedAt?: number;
+  /** When the call ended */
+  endedAt?: number;
+  /** Time between connecting and ending the call */
+  durationMs?: number;
+  /** Twilio error code if the call ended with an error */
+  errorCode?: number;
+  /** Call quality over the whole call, if it was monitored */
+  qualitySummary?: CallQualitySummary;
+}
+
+/**
+ * Timings of the setup of a call, from `makeCall()` or the invite push until the call
+ * connected or failed.
+ *
+ * Outgoing calls go through the `makeCall`, `serviceRequested`, `serviceStarted`,
+ * `connectStarted` and `ringing` stages. Incoming calls go through `pushReceived`,
+ * `inviteParsed`, `inviteDequeued`, `ringtoneStarted`, `notificationShown`, `acceptRequested`,
+ * `serviceAccept` and `acceptSent`. Both end with `connected` or `failed`. Stages that were not
+ * reached, or happened while the app was not running, are missing.
+ */
+export interface CallSetupTimings {
+  /** Twilio CallSid of the call, if it got one */
+  callSid?: string;
+  /** Whether the call was received or placed */
+  direction: 'incoming' | 'outgoing';
+  /** Whether the call connected */
+  connected: boolean;
+  /** Time from the first to the last stage in milliseconds */
+  totalMs: number;
+  /** Stages in the order they happened, with their time since the first stage and since the previous one */
+  stages: { name: string; atMs: number; durationMs: number }[];
+}
+
 export interface CapacitorTwilioVoicePlugin {
   // Authentication
 
@@ -127,6 +203,10 @@ export interface CapacitorTwilioVoicePlugin {
    * The user must be logged in before making a call. The call will be routed
    * through your Twilio backend configuration.
    *
+   * On Android the promise resolves once Twilio has assigned the CallSid, when the call starts
+   * ringing or connects, and rejects if the call fails before that. If no CallSid is assigned
+   * within 10 seconds it resolves with `callSid: 'pending'`, and the call events carry the CallSid.
+   *
    * @param options - Configuration object
    * @param options.to - Phone number (E.164 format) or Twilio client identifier to call
    * @param options.displayName - Optional human-readable name used as the
@@ -138,6 +218,7 @@ export interface CapacitorTwilioVoicePlugin {
    * @returns Promise that resolves with success status and call SID
    * @returns success - Whether the call was initiated successfully
    * @returns callSid - Unique identifier for this call (if successful)
+   * @returns state - Whether the call was ringing or already connected when the promise resolved (Android only)
    *
    * @example
    * ```typescript
@@ -164,7 +245,7 @@ export interface CapacitorTwilioVoicePlugin {
     to: string;
     displayName?: string;
     callerId?: string;
-  }): Promise<{ success: boolean; callSid?: string }>;
+  }): Promise<{ success: boolean; callSid?: string; state?: 'ringing' | 'connected' }>;
 
   /**
    * Accept an incoming call.
@@ -243,7 +324,7 @@ export interface CapacitorTwilioVoicePlugin {
    * @param options - Configuration object
    * @param options.muted - Whether to mute (true) or unmute (false) the microphone
    * @param options.callSid - Unique identifier of the call (optional, defaults to current active call)
-   * @returns Promise that resolves with success status
+   * @returns Promise that resolves with success status and, on Android, the resulting mute state of the call
    *
    * @example
    * ```typescript
@@ -258,7 +339,7 @@ export interface CapacitorTwilioVoicePlugin {
    * });
    * ```
    */
-  muteCall(options: { muted: boolean; callSid?: string }): Promise<{ success: boolean }>;
+  muteCall(options: { muted: boolean; callSid?: string }): Promise<{ success: boolean; muted?: boolean }>;
 
   /**
    * Enable or disable speakerphone mode.
@@ -267,7 +348,7 @@ export interface CapacitorTwilioVoicePlugin {
    *
    * @param options - Configuration object
    * @param options.enabled - Whether to enable (true) or disable (false) speakerphone mode
-   * @returns Promise that resolves with success status
+   * @returns Promise that resolves with success status and, on Android, whether the speaker is enabled afterwards
    *
    * @example
    * ```typescript
@@ -282,7 +363,168 @@ export interface CapacitorTwilioVoicePlugin {
    * });
    * ```
    */
-  setSpeaker(options: { enabled: boolean }): Promise<{ success: boolean }>;
+  setSpeaker(options: { enabled: boolean }): Promise<{ success: boolean; enabled?: boolean }>;
+
+  /**
+   * Put a call on hold or resume it.
+   *
+   * Resuming a call puts the call that is currently active on hold first, so the user is only
+   * ever talking on one call. Use this together with `swapCalls()` to handle call waiting.
+   *
+   * Only available on Android.
+   *
+   * @param options - Configuration object
+   * @param options.onHold - Whether to put the call on hold (true) or resume it (false)
+   * @param options.callSid - Unique identifier of the call (optional, defaults to current active call)
+   * @returns Promise that resolves with success status
+   *
+   * @example
+   * ```typescript
+   * // Resume the first call, the second one goes on hold
+   * await CapacitorTwilioVoice.holdCall({
+   *   callSid: firstCallSid,
+   *   onHold: false
+   * });
+   * ```
+   */
+  holdCall(options: { onHold: boolean; callSid?: string }): Promise<{ success: boolean }>;
+
+  /**
+   * Put the active call on hold and resume the other call.
+   *
+   * When more than two calls are connected, the most recently started other call is resumed.
+   *
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with success status
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.swapCalls();
+   * ```
+   */
+  swapCalls(): Promise<{ success: boolean }>;
+
+  /**
+   * Configure call quality monitoring.
+   *
+   * While a call is connected its stats are sampled every `sampleIntervalMs` and a
+   * `callQualitySample` event is emitted at most every `emitIntervalMs`. Applies to calls in
+   * progress and to later calls.
+   *
+   * Only available on Android.
+   *
+   * @param options - Configuration object
+   * @param options.sampleIntervalMs - How often call stats are sampled, 0 disables monitoring (optional, defaults to 1000)
+   * @param options.emitIntervalMs - Minimum time between two `callQualitySample` events for a call (optional, defaults to 5000)
+   * @returns Promise that resolves with success status
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.setCallQualityMonitoring({
+   *   sampleIntervalMs: 2000,
+   *   emitIntervalMs: 10000
+   * });
+   * ```
+   */
+  setCallQualityMonitoring(options: {
+    sampleIntervalMs?: number;
+    emitIntervalMs?: number;
+  }): Promise<{ success: boolean }>;
+
+  // Events
+
+  /**
+   * Configure how bursts of events are coalesced.
+   *
+   * `callQualityWarningsChanged` and `callQualitySample` events describe the latest state of a
+   * call, so within the window only the last one per call and event is delivered. Other events
+   * are always delivered, in order.
+   *
+   * Only available on Android.
+   *
+   * @param options - Configuration object
+   * @param options.windowMs - How long events are held back for coalescing, 0 disables coalescing (optional, defaults to 500)
+   * @returns Promise that resolves with success status
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.setEventCoalescing({ windowMs: 1000 });
+   * ```
+   */
+  setEventCoalescing(options: { windowMs?: number }): Promise<{ success: boolean }>;
+
+  /**
+   * Get event delivery counters since the plugin was loaded.
+   *
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with the coalescing window and the number of events
+   * delivered, coalesced into a later event, and dropped because too many were queued
+   *
+   * @example
+   * ```typescript
+   * const stats = await CapacitorTwilioVoice.getEventStats();
+   * console.log(`${stats.coalesced} coalesced, ${stats.dropped} dropped`);
+   * ```
+   */
+  getEventStats(): Promise<{ coalesceWindowMs: number; delivered: number; coalesced: number; dropped: number }>;
+
+  // Call History
+
+  /**
+   * Get calls from the on-device call history, newest first.
+   *
+   * Every call handled by the plugin is recorded when it ends, including rejected and missed
+   * invites. The history keeps at least the last 1000 calls.
+   *
+   * Only available on Android.
+   *
+   * @param options - Query options (optional)
+   * @param options.from - Only calls started at or after this time, in milliseconds since the epoch (optional)
+   * @param options.to - Only calls started at or before this time, in milliseconds since the epoch (optional)
+   * @param options.offset - Number of calls to skip, for paging (optional, defaults to 0)
+   * @param options.limit - Maximum number of calls to return (optional, defaults to 50)
+   * @returns Promise that resolves with the page of calls and the number of calls in the time range
+   *
+   * @example
+   * ```typescript
+   * const weekAgo = Date.now() - 7 * 24 * 60 * 60 * 1000;
+   * const { calls, total } = await CapacitorTwilioVoice.getCallHistory({ from: weekAgo, limit: 20 });
+   * calls.forEach((record) => {
+   *   console.log(`${record.direction} call with ${record.peer}: ${record.status}`);
+   * });
+   * ```
+   */
+  getCallHistory(options?: {
+    from?: number;
+    to?: number;
+    offset?: number;
+    limit?: number;
+  }): Promise<{ calls: CallRecord[]; total: number }>;
+
+  /**
+   * Get the setup timings of recent calls, newest first.
+   *
+   * Use this to find where the time goes between placing or answering a call and the call
+   * connecting. The timings of the last 16 calls are kept. The same timings are emitted with the
+   * `callSetupTimings` event.
+   *
+   * Only available on Android.
+   *
+   * @param options - Query options (optional)
+   * @param options.callSid - Only the timings of this call (optional)
+   * @returns Promise that resolves with the call setup timings
+   *
+   * @example
+   * ```typescript
+   * const { timings } = await CapacitorTwilioVoice.getCallTimings();
+   * timings[0]?.stages.forEach((stage) => {
+   *   console.log(`${stage.name}: +${stage.durationMs}ms`);
+   * });
+   * ```
+   */
+  getCallTimings(options?: { callSid?: string }): Promise<{ timings: CallSetupTimings[] }>;
 
   // Call Status
 
@@ -436,7 +678,7 @@ export interface CapacitorTwilioVoicePlugin {
    * @param listenerFunc - Callback function to handle the event
    * @param listenerFunc.data - Event data
    * @param listenerFunc.data.callSid - Unique identifier for the cancelled call
-   * @param listenerFunc.data.reason - Reason for cancellation ('user_declined' or 'remote_cancelled')
+   * @param listenerFunc.data.reason - Reason for cancellation ('user_declined', 'remote_cancelled', or 'expired' when an unanswered invite timed out on Android)
    * @returns Promise that resolves with a listener handle for removing the listener
    *
    * @example
@@ -452,7 +694,7 @@ export interface CapacitorTwilioVoicePlugin {
    */
   addListener(
     eventName: 'callInviteCancelled',
-    listenerFunc: (data: { callSid: string; reason: 'user_declined' | 'remote_cancelled' }) => void,
+    listenerFunc: (data: { callSid: string; reason: 'user_declined' | 'remote_cancelled' | 'expired' }) => void,
   ): Promise<PluginListenerHandle>;
 
   /**
@@ -545,6 +787,7 @@ export interface CapacitorTwilioVoicePlugin {
    * @param listenerFunc.data - Event data
    * @param listenerFunc.data.callSid - Unique identifier for the disconnected call
    * @param listenerFunc.data.error - Error message if the call was disconnected due to an error (optional)
+   * @param listenerFunc.data.qualitySummary - Call quality over the whole call, if it was monitored (optional, Android only)
    * @returns Promise that resolves with a listener handle for removing the listener
    *
    * @example
@@ -560,7 +803,7 @@ export interface CapacitorTwilioVoicePlugin {
    */
   addListener(
     eventName: 'callDisconnected',
-    listenerFunc: (data: { callSid: string; error?: string }) => void,
+    listenerFunc: (data: { callSid: string; error?: string; qualitySummary?: CallQualitySummary }) => void,
   ): Promise<PluginListenerHandle>;
 
   /**
@@ -641,6 +884,85 @@ export interface CapacitorTwilioVoicePlugin {
     listenerFunc: (data: { callSid: string }) => void,
   ): Promise<PluginListenerHandle>;
 
+  /**
+   * Listen for hold state changes.
+   *
+   * This event is fired when a call is put on hold or resumed, including when a call is put
+   * on hold automatically because another call was accepted, placed or resumed.
+   *
+   * Only available on Android.
+   *
+   * @param eventName - The event name ('callHoldChanged')
+   * @param listenerFunc - Callback function to handle the event
+   * @param listenerFunc.data - Event data
+   * @param listenerFunc.data.callSid - Unique identifier for the call
+   * @param listenerFunc.data.onHold - Whether the call is now on hold
+   * @returns Promise that resolves with a listener handle for removing the listener
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.addListener('callHoldChanged', (data) => {
+   *   console.log(`Call ${data.callSid} ${data.onHold ? 'on hold' : 'resumed'}`);
+   * });
+   * ```
+   */
+  addListener(
+    eventName: 'callHoldChanged',
+    listenerFunc: (data: { callSid: string; onHold: boolean }) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for call quality samples.
+   *
+   * This event is fired periodically while a call is connected, with the call quality aggregated
+   * over the stats samples taken since the previous event. See `setCallQualityMonitoring()`.
+   *
+   * Only available on Android.
+   *
+   * @param eventName - The event name ('callQualitySample')
+   * @param listenerFunc - Callback function to handle the event
+   * @param listenerFunc.data - Event data, the call quality and the call it belongs to
+   * @returns Promise that resolves with a listener handle for removing the listener
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.addListener('callQualitySample', (data) => {
+   *   if (data.averageMos < 3.5) {
+   *     console.warn(`Poor audio on ${data.callSid}: ${data.packetLossPercent}% loss`);
+   *   }
+   * });
+   * ```
+   */
+  addListener(
+    eventName: 'callQualitySample',
+    listenerFunc: (data: CallQualitySummary & { callSid: string }) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for call setup timings.
+   *
+   * This event is fired when a call connects or fails to connect, with the timings of its setup.
+   * See `getCallTimings()`.
+   *
+   * Only available on Android.
+   *
+   * @param eventName - The event name ('callSetupTimings')
+   * @param listenerFunc - Callback function to handle the event
+   * @param listenerFunc.data - Event data, the timings of the call setup
+   * @returns Promise that resolves with a listener handle for removing the listener
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.addListener('callSetupTimings', (data) => {
+   *   console.log(`Call ${data.callSid} took ${data.totalMs}ms to connect`);
+   * });
+   * ```
+   */
+  addListener(
+    eventName: 'callSetupTimings',
+    listenerFunc: (data: CallSetupTimings) => void,
+  ): Promise<PluginListenerHandle>;
+
   /**
    * Listen for call quality warning events.
    *
@@ -721,6 +1043,36 @@ export interface CapacitorTwilioVoicePlugin {
     listenerFunc: (data: { error: string }) => void,
   ): Promise<PluginListenerHandle>;
 
+  /**
+   * Listen for access token expiry warnings.
+   *
+   * This event is fired once, five minutes before the access token passed to `login()` expires
+   * (or right away if it is already closer to its expiry), so a fresh token can be fetched from your
+   * backend and passed to `login()` again before incoming calls stop reaching the device.
+   *
+   * Only available on Android.
+   *
+   * @param eventName - The event name ('tokenWillExpire')
+   * @param listenerFunc - Callback function to handle the event
+   * @param listenerFunc.data - Event data
+   * @param listenerFunc.data.expiresAt - Expiry of the token in seconds since the epoch (`exp` claim)
+   * @param listenerFunc.data.secondsRemaining - Seconds left until the token expires
+   * @param listenerFunc.data.identity - Identity of the token (if present)
+   * @returns Promise that resolves with a listener handle for removing the listener
+   *
+   * @example
+   * ```typescript
+   * await CapacitorTwilioVoice.addListener('tokenWillExpire', async () => {
+   *   const accessToken = await fetchAccessTokenFromBackend();
+   *   await CapacitorTwilioVoice.login({ accessToken });
+   * });
+   * ```
+   */
+  addListener(
+    eventName: 'tokenWillExpire',
+    listenerFunc: (data: { expiresAt: number; secondsRemaining: number; identity?: string }) => void,
+  ): Promise<PluginListenerHandle>;
+
   /**
    * Remove all registered event listeners.
    *
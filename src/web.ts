@@ -1,6 +1,6 @@
 import { WebPlugin } from '@capacitor/core';
 
-import type { CapacitorTwilioVoicePlugin, CallInvite } from './definitions';
+import type { CapacitorTwilioVoicePlugin, CallInvite, CallRecord, CallSetupTimings } from './definitions';
 
 export class CapacitorTwilioVoiceWeb extends WebPlugin implements CapacitorTwilioVoicePlugin {
   // Authentication
@@ -22,7 +22,7 @@ export class CapacitorTwilioVoiceWeb extends WebPlugin implements CapacitorTwili
     to: string;
     displayName?: string;
     callerId?: string;
-  }): Promise<{ success: boolean; callSid?: string }> {
+  }): Promise<{ success: boolean; callSid?: string; state?: 'ringing' | 'connected' }> {
     void _options;
     throw this.unimplemented('Not implemented on web.');
   }
@@ -43,12 +43,55 @@ export class CapacitorTwilioVoiceWeb extends WebPlugin implements CapacitorTwili
   }
 
   // Call Controls
-  async muteCall(_options: { muted: boolean; callSid?: string }): Promise<{ success: boolean }> {
+  async muteCall(_options: { muted: boolean; callSid?: string }): Promise<{ success: boolean; muted?: boolean }> {
     void _options;
     throw this.unimplemented('Not implemented on web.');
   }
 
-  async setSpeaker(_options: { enabled: boolean }): Promise<{ success: boolean }> {
+  async setSpeaker(_options: { enabled: boolean }): Promise<{ success: boolean; enabled?: boolean }> {
+    void _options;
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async holdCall(_options: { onHold: boolean; callSid?: string }): Promise<{ success: boolean }> {
+    void _options;
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async swapCalls(): Promise<{ success: boolean }> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async setCallQualityMonitoring(_options: {
+    sampleIntervalMs?: number;
+    emitIntervalMs?: number;
+  }): Promise<{ success: boolean }> {
+    void _options;
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  // Events
+  async setEventCoalescing(_options: { windowMs?: number }): Promise<{ success: boolean }> {
+    void _options;
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getEventStats(): Promise<{ coalesceWindowMs: number; delivered: number; coalesced: number; dropped: number }> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  // Call History
+  async getCallHistory(_options?: {
+    from?: number;
+    to?: number;
+    offset?: number;
+    limit?: number;
+  }): Promise<{ calls: CallRecord[]; total: number }> {
+    void _options;
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getCallTimings(_options?: { callSid?: string }): Promise<{ timings: CallSetupTimings[] }> {
     void _options;
     throw this.unimplemented('Not implemented on web.');
   }